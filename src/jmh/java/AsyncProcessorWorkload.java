@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+
+//AsyncProcessorWorkload.java: one aggregation per call() for benchmarks.AsyncProcessorBenchmark,
+// against seeded SimulatedMicroservice stand-ins.
+// latency shapes - none: completes inline (pure framework overhead); fixed: 200us;
+// longTail: 100us, 5% at 5ms.
+
+public class AsyncProcessorWorkload implements Callable<Object> {
+
+    private final AsyncProcessor processor = new AsyncProcessor();
+    private final String policy;
+    private final List<Microservice> services;
+    private final List<String> messages;
+
+    public AsyncProcessorWorkload(String policy, int fanOut, double failureRatio, String latency) {
+        this.policy = policy;
+        this.services = new ArrayList<>(fanOut);
+        this.messages = new ArrayList<>(fanOut);
+        for (int i = 0; i < fanOut; i++) {
+            services.add(service("svc-" + i, 42 + i, failureRatio, latency));
+            messages.add("msg-" + i);
+        }
+    }
+
+    // Failures are part of the workload: a failed FailFast or CompletionOrder aggregate is
+    // returned, not thrown.
+    @Override
+    public Object call() {
+        try {
+            switch (policy) {
+            case "failFast":
+                return processor.processAsyncFailFast(services, messages).join();
+            case "failPartial":
+                return processor.processAsyncFailPartial(services, messages).join();
+            case "failSoft":
+                return processor.processAsyncFailSoft(services, messages, "FALLBACK").join();
+            case "completionOrder":
+                return processor.processAsyncCompletionOrder(services, "msg").join();
+            default:
+                throw new IllegalArgumentException("unknown policy: " + policy);
+            }
+        } catch (CompletionException failed) {
+            return failed;
+        }
+    }
+
+    private static Microservice service(String serviceId, long seed, double failureRatio, String latency) {
+        switch (latency) {
+        case "none":
+            return simulated(serviceId, seed, LatencyDistribution.fixed(0), failureRatio);
+        case "fixed":
+            return simulated(serviceId, seed, LatencyDistribution.fixed(0.2), failureRatio);
+        case "longTail":
+            return simulated(serviceId, seed, LatencyDistribution.bimodal(
+                    LatencyDistribution.fixed(0.1), LatencyDistribution.fixed(5), 0.05), failureRatio);
+        default:
+            throw new IllegalArgumentException("unknown latency shape: " + latency);
+        }
+    }
+
+    private static Microservice simulated(String serviceId, long seed, LatencyDistribution latency,
+            double failureRatio) {
+        return new SimulatedMicroservice(serviceId, seed, latency).withFailureProbability(failureRatio);
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//CompletionCollectorWorkload.java: one call() = `services` results added from `threads`
+// threads at once, into either the old Collections.synchronizedList(ArrayList) or
+// CompletionCollector. Threads are started once per trial so only the adds are compared.
+
+public class CompletionCollectorWorkload implements Callable<Object>, AutoCloseable {
+
+    private final String collector;
+    private final int services;
+    private final int threads;
+    private final ExecutorService pool;
+    private final String[] results;
+
+    public CompletionCollectorWorkload(String collector, int services, int threads) {
+        this.collector = collector;
+        this.services = services;
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads, ServiceExecutors.daemonThreads("collector-bench"));
+        this.results = new String[services];
+        for (int i = 0; i < services; i++) {
+            results[i] = "svc-" + i + ":MSG";
+        }
+    }
+
+    @Override
+    public Object call() throws InterruptedException {
+        switch (collector) {
+        case "synchronizedList": {
+            List<String> list = Collections.synchronizedList(new ArrayList<>());
+            run(list::add);
+            return list;
+        }
+        case "completionCollector": {
+            CompletionCollector list = new CompletionCollector(services);
+            run(list::add);
+            return list.toList();
+        }
+        default:
+            throw new IllegalArgumentException("unknown collector: " + collector);
+        }
+    }
+
+    private interface Sink {
+        void add(String result);
+    }
+
+    private void run(Sink sink) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int from = (int) ((long) services * t / threads);
+            int to = (int) ((long) services * (t + 1) / threads);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = from; i < to; i++) {
+                        sink.add(results[i]);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        done.await();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
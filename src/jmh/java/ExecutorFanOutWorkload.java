@@ -0,0 +1,69 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+//ExecutorFanOutWorkload.java: one call() = one FailPartial aggregation over fanOut blocking
+// Microservice calls (0-30 ms sleeps) run on the named I/O executor, for
+// benchmarks.ExecutorFanOutBenchmark. Calls the executor rejects are dropped by FailPartial,
+// so the returned list holds only the calls that succeeded. The *-per-call and
+// platform-pool-256 executors are the ones benchmarks.VirtualThreadBenchmark compares;
+// virtual-per-call needs a JDK 21 (-Pjava21).
+
+public class ExecutorFanOutWorkload implements Callable<Object>, AutoCloseable {
+
+    private final Executor io;
+    private final ExecutorService cpu;
+    private final AsyncProcessor processor;
+    private final List<Microservice> services;
+    private final List<String> messages;
+
+    public ExecutorFanOutWorkload(String executor, int fanOut) {
+        this.io = executor(executor);
+        this.cpu = ServiceExecutors.cpu("bench-cpu", Runtime.getRuntime().availableProcessors());
+        this.processor = new AsyncProcessor(cpu);
+        this.services = new ArrayList<>(fanOut);
+        this.messages = new ArrayList<>(fanOut);
+        for (int i = 0; i < fanOut; i++) {
+            services.add(new Microservice("svc-" + i, io));
+            messages.add("msg-" + i);
+        }
+    }
+
+    @Override
+    public Object call() {
+        return processor.processAsyncFailPartial(services, messages).join();
+    }
+
+    @Override
+    public void close() {
+        if (io instanceof ExecutorService) {
+            ((ExecutorService) io).shutdownNow();
+        }
+        cpu.shutdownNow();
+    }
+
+    static Executor executor(String name) {
+        switch (name) {
+        case "commonPool":
+            return ServiceExecutors.commonPool();
+        case "boundedIo-32":
+            return ServiceExecutors.boundedIo("bench-io", 32, 100_000);
+        case "boundedIo-256":
+            return ServiceExecutors.boundedIo("bench-io", 256, 100_000);
+        case "boundedIo-256-callerRuns":
+            return ServiceExecutors.boundedIo("bench-io", 256, 256, new ThreadPoolExecutor.CallerRunsPolicy());
+        case "platform-pool-256":
+            return ServiceExecutors.boundedIo("bench-io", 256, 1_000_000);
+        case "platform-per-call":
+            return Executors.newCachedThreadPool(ServiceExecutors.daemonThreads("bench-io"));
+        case "virtual-per-call":
+            return ServiceExecutors.virtualThreadPerTask();
+        default:
+            throw new IllegalArgumentException("unknown executor: " + name);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+//ParkedCallsWorkload.java: one call() = park fanOut calls on the named I/O executor (see
+// ExecutorFanOutWorkload), wait until as many as it can run are in flight, then release
+// them all, for benchmarks.VirtualThreadBenchmark. A pool holds at most its thread count in
+// flight; the rest wait in its queue. Virtual thread stacks live on the heap, so the gc
+// profiler's bytes per op, divided by the calls in flight, is their full cost; platform
+// thread stacks are native memory and do not show up there.
+
+public class ParkedCallsWorkload implements Callable<Object>, AutoCloseable {
+
+    private final Executor io;
+    private final int fanOut;
+    private final int inFlight;
+
+    public ParkedCallsWorkload(String executor, int fanOut) {
+        this.io = ExecutorFanOutWorkload.executor(executor);
+        this.fanOut = fanOut;
+        this.inFlight = io instanceof ThreadPoolExecutor
+                ? Math.min(fanOut, ((ThreadPoolExecutor) io).getMaximumPoolSize())
+                : fanOut;
+    }
+
+    @Override
+    public Object call() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(inFlight);
+        List<CompletableFuture<Void>> calls = new ArrayList<>(fanOut);
+        for (int i = 0; i < fanOut; i++) {
+            calls.add(CompletableFuture.runAsync(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, io));
+        }
+        started.await();
+        release.countDown();
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+    }
+
+    @Override
+    public void close() {
+        if (io instanceof ExecutorService) {
+            ((ExecutorService) io).shutdownNow();
+        }
+    }
+}
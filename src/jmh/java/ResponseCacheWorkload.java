@@ -0,0 +1,33 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+//ResponseCacheWorkload.java: one call() = one ResponseCache hit, for
+// benchmarks.ResponseCacheBenchmark. The trial starts with every key cached and no entry
+// expiring, so a miss is a workload bug and fails loudly instead of skewing the numbers.
+
+public class ResponseCacheWorkload implements Callable<Object> {
+
+    private final ResponseCache cache;
+    private final String[] inputs;
+
+    public ResponseCacheWorkload(int keys) {
+        this.cache = new ResponseCache(keys, 60_000, 60_000, 0);
+        this.inputs = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            inputs[i] = "route-" + i;
+            String value = "AirAlpha:ROUTE-" + i;
+            cache.retrieve("AirAlpha", inputs[i], () -> CompletableFuture.completedFuture(value)).join();
+        }
+    }
+
+    @Override
+    public Object call() {
+        String input = inputs[ThreadLocalRandom.current().nextInt(inputs.length)];
+        return cache.retrieve("AirAlpha", input, ResponseCacheWorkload::unexpectedMiss).getNow(null);
+    }
+
+    private static CompletableFuture<String> unexpectedMiss() {
+        throw new IllegalStateException("benchmark keys should all be cached");
+    }
+}
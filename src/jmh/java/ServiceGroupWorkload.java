@@ -0,0 +1,28 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+//ServiceGroupWorkload.java: one call() = one call to a group of three fast replicas and one
+// ten times slower, for benchmarks.ServiceGroupBenchmark. Replicas are simulated on timers,
+// so what is measured is where the strategy sends calls. Outlier ejection is off, so each
+// strategy copes with the slow replica on its own.
+
+public class ServiceGroupWorkload implements Callable<Object> {
+
+    private final ServiceGroup group;
+
+    public ServiceGroupWorkload(String strategy) {
+        List<Microservice> replicas = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            replicas.add(new SimulatedMicroservice("fast-" + i, i, LatencyDistribution.logNormal(5, 0.25)));
+        }
+        replicas.add(new SimulatedMicroservice("slow", 3, LatencyDistribution.logNormal(50, 0.25)));
+        this.group = new ServiceGroup("AirAlpha", replicas, ServiceGroup.Strategy.valueOf(strategy))
+                .withOutlierEjection(0, 0, 0);
+    }
+
+    @Override
+    public Object call() {
+        return group.retrieveAsync("nyc-lax").join();
+    }
+}
@@ -0,0 +1,54 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+//TimeoutSchedulerWorkload.java: one call() = schedule a timeout for a fresh call and then
+// complete the call, which cancels it - the life of every call that answers in time. The
+// trial starts with `pending` ten-minute timeouts already outstanding, so the cost is
+// measured against a timer queue of that size.
+
+public class TimeoutSchedulerWorkload implements Callable<Object>, AutoCloseable {
+
+    private static final long BACKGROUND_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final long CALL_TIMEOUT_MS = 500;
+
+    private final TimeoutScheduler scheduler;
+    private final List<CompletableFuture<String>> background;
+
+    public TimeoutSchedulerWorkload(String scheduler, int pending) {
+        switch (scheduler) {
+        case "orTimeout":
+            this.scheduler = TimeoutScheduler.jdk();
+            break;
+        case "hashedWheel":
+            this.scheduler = new HashedWheelTimer(1);
+            break;
+        default:
+            throw new IllegalArgumentException("unknown scheduler: " + scheduler);
+        }
+        this.background = new ArrayList<>(pending);
+        for (int i = 0; i < pending; i++) {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            this.scheduler.timeout(call, BACKGROUND_TIMEOUT_MS);
+            background.add(call);
+        }
+    }
+
+    @Override
+    public Object call() {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        scheduler.timeout(call, CALL_TIMEOUT_MS);
+        call.complete("ok");
+        return call;
+    }
+
+    @Override
+    public void close() throws Exception {
+        background.forEach(call -> call.complete("done"));
+        if (scheduler instanceof AutoCloseable) {
+            ((AutoCloseable) scheduler).close();
+        }
+    }
+}
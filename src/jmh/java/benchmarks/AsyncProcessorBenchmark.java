@@ -0,0 +1,56 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+//AsyncProcessorBenchmark.java: throughput and latency percentiles (SampleTime) of each
+// aggregation policy across fan-out, failure ratio and latency shape; see AsyncProcessorWorkload.
+// Run (allocation rate comes from the gc profiler, on by default):
+//   mvn -Pjmh test-compile exec:exec
+//   mvn -Pjmh test-compile exec:exec -Djmh.args="AsyncProcessorBenchmark -p policy=failFast -p fanOut=16 -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncProcessorBenchmark {
+
+    @Param({ "failFast", "failPartial", "failSoft", "completionOrder" })
+    public String policy;
+
+    @Param({ "1", "16", "128" })
+    public int fanOut;
+
+    @Param({ "0", "0.01", "0.1" })
+    public double failureRatio;
+
+    @Param({ "none", "fixed", "longTail" })
+    public String latency;
+
+    private Callable<Object> workload;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        workload = Workloads.create("AsyncProcessorWorkload", Callable.class, policy, fanOut, failureRatio, latency);
+    }
+
+    @Benchmark
+    public Object aggregate() throws Exception {
+        return workload.call();
+    }
+}
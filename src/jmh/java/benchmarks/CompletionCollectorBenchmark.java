@@ -0,0 +1,58 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+//CompletionCollectorBenchmark.java: time to collect every result of one completion-order
+// aggregation when `threads` completing threads add concurrently; synchronizedList is the
+// collector processAsyncCompletionOrder used before CompletionCollector.
+//   mvn -Pjmh test-compile exec:exec -Djmh.args="CompletionCollectorBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompletionCollectorBenchmark {
+
+    @Param({ "synchronizedList", "completionCollector" })
+    public String collector;
+
+    @Param({ "1000", "10000", "100000" })
+    public int services;
+
+    @Param({ "1", "4", "16" })
+    public int threads;
+
+    private Callable<Object> workload;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        workload = Workloads.create("CompletionCollectorWorkload", Callable.class, collector, services, threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ((AutoCloseable) workload).close();
+    }
+
+    @Benchmark
+    public Object collect() throws Exception {
+        return workload.call();
+    }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+//ExecutorFanOutBenchmark.java: aggregation throughput against fan-out for each I/O executor
+// model; see ExecutorFanOutWorkload. The succeeded/failed counters are calls per second, so
+// their ratio is the success rate a bounded pool gives up under load.
+//   mvn -Pjmh test-compile exec:exec -Djmh.args="ExecutorFanOutBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutorFanOutBenchmark {
+
+    @Param({ "commonPool", "boundedIo-32", "boundedIo-256", "boundedIo-256-callerRuns" })
+    public String executor;
+
+    @Param({ "10", "100", "250", "500", "1000" })
+    public int fanOut;
+
+    private Callable<Object> workload;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Calls {
+        public long succeeded;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            succeeded = 0;
+            failed = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        workload = Workloads.create("ExecutorFanOutWorkload", Callable.class, executor, fanOut);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ((AutoCloseable) workload).close();
+    }
+
+    @Benchmark
+    public Object aggregate(Calls calls) throws Exception {
+        List<?> results = (List<?>) workload.call();
+        calls.succeeded += results.size();
+        calls.failed += fanOut - results.size();
+        return results;
+    }
+}
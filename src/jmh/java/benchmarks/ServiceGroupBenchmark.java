@@ -0,0 +1,48 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+//ServiceGroupBenchmark.java: latency percentiles (SampleTime) of calls to a group with one
+// slow replica, per replica-selection strategy; see ServiceGroupWorkload. The 32 threads
+// keep 32 calls in flight, which is what gives the load-aware strategies something to see.
+//   mvn -Pjmh test-compile exec:exec -Djmh.args="ServiceGroupBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+@Fork(1)
+public class ServiceGroupBenchmark {
+
+    @Param({ "ROUND_ROBIN", "LEAST_OUTSTANDING", "POWER_OF_TWO_CHOICES" })
+    public String strategy;
+
+    private Callable<Object> workload;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        workload = Workloads.create("ServiceGroupWorkload", Callable.class, strategy);
+    }
+
+    @Benchmark
+    public Object call() throws Exception {
+        return workload.call();
+    }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+//TimeoutSchedulerBenchmark.java: schedule-then-cancel cost of a per-call timeout with
+// `pending` timeouts outstanding, orTimeout against HashedWheelTimer. Add -t 4 (or more)
+// to see the single delayer thread contended.
+//   mvn -Pjmh test-compile exec:exec -Djmh.args="TimeoutSchedulerBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeoutSchedulerBenchmark {
+
+    @Param({ "orTimeout", "hashedWheel" })
+    public String scheduler;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int pending;
+
+    private Callable<Object> workload;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        workload = Workloads.create("TimeoutSchedulerWorkload", Callable.class, scheduler, pending);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ((AutoCloseable) workload).close();
+    }
+
+    @Benchmark
+    public Object scheduleAndCancel() throws Exception {
+        return workload.call();
+    }
+}
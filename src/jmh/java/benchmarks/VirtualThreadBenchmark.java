@@ -0,0 +1,66 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+//VirtualThreadBenchmark.java: virtual threads against platform-thread pools at large fan-out.
+// aggregate: p50/p99 latency (SampleTime) of one FailPartial aggregation of blocking calls;
+// see ExecutorFanOutWorkload. parkAll: cost of holding the calls in flight; see
+// ParkedCallsWorkload for reading its gc profiler figures. Needs a JDK 21, so only the java21
+// profile runs it:
+//   mvn -Pjmh,java21 test-compile exec:exec -Djmh.args="VirtualThreadBenchmark -prof gc"
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    @Param({ "platform-pool-256", "platform-per-call", "virtual-per-call" })
+    public String executor;
+
+    @Param({ "1000", "10000" })
+    public int fanOut;
+
+    private Callable<Object> aggregation;
+    private Callable<Object> parked;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        aggregation = Workloads.create("ExecutorFanOutWorkload", Callable.class, executor, fanOut);
+        parked = Workloads.create("ParkedCallsWorkload", Callable.class, executor, fanOut);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ((AutoCloseable) aggregation).close();
+        ((AutoCloseable) parked).close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public Object aggregate() throws Exception {
+        return aggregation.call();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public Object parkAll() throws Exception {
+        return parked.call();
+    }
+}
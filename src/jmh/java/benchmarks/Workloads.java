@@ -0,0 +1,31 @@
+package benchmarks;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+//Workloads.java: JMH refuses benchmark classes in the default package, and named packages
+// cannot reference the default-package production classes. Each benchmark therefore drives
+// a default-package workload (under src/jmh/java) that it creates here once per trial and
+// then calls through a JDK interface, so the measured path has no reflection in it.
+
+final class Workloads {
+
+    private Workloads() {
+    }
+
+    static <T> T create(String className, Class<T> type, Object... args) {
+        try {
+            for (Constructor<?> constructor : Class.forName(className).getConstructors()) {
+                if (constructor.getParameterCount() == args.length) {
+                    return type.cast(constructor.newInstance(args));
+                }
+            }
+            throw new IllegalArgumentException(className + " has no public constructor taking "
+                    + args.length + " arguments");
+        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("cannot create workload " + className, e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("workload " + className + " failed to start", e.getCause());
+        }
+    }
+}
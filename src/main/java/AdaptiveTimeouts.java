@@ -0,0 +1,83 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+//AdaptiveTimeouts.java: per-service timeouts derived from observed latency instead of one
+// static constant. timeout = mean + k * stddev, clamped to [floorMs, ceilingMs].
+// Timeouts are recorded as latency equal to the timeout that fired, so a slow-but-healthy
+// service pushes its own timeout up (to the ceiling) rather than being cut off forever.
+
+public final class AdaptiveTimeouts {
+
+    private final long floorMs;
+    private final long ceilingMs;
+    private final double alpha;
+    private final double k;
+    private final int minSamples;
+
+    private final Map<String, AtomicReference<LatencyEstimate>> estimates = new ConcurrentHashMap<>();
+
+    public AdaptiveTimeouts(long floorMs, long ceilingMs, double alpha, double k, int minSamples) {
+        if (floorMs <= 0 || ceilingMs < floorMs) {
+            throw new IllegalArgumentException("need 0 < floorMs <= ceilingMs");
+        }
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]");
+        }
+        this.floorMs = floorMs;
+        this.ceilingMs = ceilingMs;
+        this.alpha = alpha;
+        this.k = k;
+        this.minSamples = minSamples;
+    }
+
+    public AdaptiveTimeouts(long floorMs, long ceilingMs) {
+        this(floorMs, ceilingMs, 0.1, 4.0, 10);
+    }
+
+    // Until minSamples completions have been seen the ceiling applies.
+    public long timeoutMs(String serviceId) {
+        AtomicReference<LatencyEstimate> ref = estimates.get(serviceId);
+        LatencyEstimate estimate = ref == null ? LatencyEstimate.EMPTY : ref.get();
+        if (estimate.samples() < minSamples) {
+            return ceilingMs;
+        }
+        long derived = (long) Math.ceil(estimate.meanMs() + k * estimate.stdDevMs());
+        return Math.max(floorMs, Math.min(ceilingMs, derived));
+    }
+
+    // Mean latency once minSamples completions have been seen, 0 (unknown) before.
+    public double expectedLatencyMs(String serviceId) {
+        AtomicReference<LatencyEstimate> ref = estimates.get(serviceId);
+        LatencyEstimate estimate = ref == null ? LatencyEstimate.EMPTY : ref.get();
+        return estimate.samples() < minSamples ? 0 : estimate.meanMs();
+    }
+
+    public void record(String serviceId, long latencyNanos) {
+        update(serviceId, latencyNanos / 1_000_000.0);
+    }
+
+    public void recordTimeout(String serviceId, long timeoutMs) {
+        update(serviceId, timeoutMs);
+    }
+
+    // Point-in-time copy for inspection, sorted by service id.
+    public Map<String, LatencyEstimate> estimates() {
+        Map<String, LatencyEstimate> snapshot = new TreeMap<>();
+        estimates.forEach((id, ref) -> snapshot.put(id, ref.get()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    private void update(String serviceId, double sampleMs) {
+        AtomicReference<LatencyEstimate> ref = estimates.get(serviceId);
+        if (ref == null) {
+            ref = estimates.computeIfAbsent(serviceId, id -> new AtomicReference<>(LatencyEstimate.EMPTY));
+        }
+        LatencyEstimate current;
+        do {
+            current = ref.get();
+        } while (!ref.compareAndSet(current, current.update(sampleMs, alpha)));
+    }
+}
@@ -0,0 +1,6 @@
+//AggregationPolicy.java: the ways AsyncProcessor can combine service results; used to label
+// metrics by the policy a call was made under.
+
+public enum AggregationPolicy {
+    FAIL_FAST, FAIL_PARTIAL, FAIL_SOFT, COMPLETION_ORDER, COMPLETION_STREAM, QUORUM
+}
@@ -1,8 +1,15 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -12,96 +19,513 @@ public class AsyncProcessor {
 
         private static final long PER_SERVICE_TIMEOUT_MS = 500;
 
-        private CompletableFuture<String> timedRetrieve(Microservice client, String message) {
+        // Runs the aggregation stages (join/collect); kept apart from the I/O pool that
+        // Microservice uses for the blocking calls themselves.
+        private final Executor aggregationExecutor;
+
+        public AsyncProcessor() {
+                this(ServiceExecutors.commonPool());
+        }
+
+        public AsyncProcessor(Executor aggregationExecutor) {
+                this.aggregationExecutor = aggregationExecutor;
+        }
+
+        // Optional call-path layers; configure before the processor is shared between threads.
+        private HedgePolicy hedgePolicy;
+        private AdaptiveTimeouts adaptiveTimeouts;
+        private CircuitBreakerRegistry circuitBreakers;
+        private RequestCoalescer coalescer;
+        private ResponseCache cache;
+        private BulkheadRegistry bulkheads;
+        private MicroBatcher batcher;
+        private ServiceMetrics metrics;
+        private FailureSink failureSink = FailureSink.stderr();
+        private RetryPolicy retryPolicy;
+        private RateLimiterRegistry rateLimiters;
+        private TimeoutScheduler timeoutScheduler = TimeoutScheduler.jdk();
+
+        public AsyncProcessor withHedging(HedgePolicy hedgePolicy) {
+                this.hedgePolicy = hedgePolicy;
+                return this;
+        }
+
+        // Replaces PER_SERVICE_TIMEOUT_MS with a timeout derived from each service's latency.
+        public AsyncProcessor withAdaptiveTimeouts(AdaptiveTimeouts adaptiveTimeouts) {
+                this.adaptiveTimeouts = adaptiveTimeouts;
+                return this;
+        }
+
+        // Open breakers refuse calls before they reach the service: FailFast fails, FailPartial
+        // drops the service and FailSoft substitutes its fallback, all without waiting.
+        public AsyncProcessor withCircuitBreakers(CircuitBreakerRegistry circuitBreakers) {
+                this.circuitBreakers = circuitBreakers;
+                return this;
+        }
+
+        // Concurrent identical (serviceId, message) calls share one downstream call.
+        public AsyncProcessor withCoalescing(RequestCoalescer coalescer) {
+                this.coalescer = coalescer;
+                return this;
+        }
+
+        // Answers repeated (serviceId, message) calls from memory; sits in front of coalescing.
+        public AsyncProcessor withCache(ResponseCache cache) {
+                this.cache = cache;
+                return this;
+        }
+
+        // Caps in-flight calls per service. A rejected call is handled like an open breaker:
+        // FailFast fails, FailPartial drops the service and FailSoft substitutes its fallback.
+        public AsyncProcessor withBulkheads(BulkheadRegistry bulkheads) {
+                this.bulkheads = bulkheads;
+                return this;
+        }
+
+        // Messages for the same service travel together in retrieveBatchAsync calls; results are
+        // scattered back, so every policy keeps its usual output order. Replaces hedging.
+        public AsyncProcessor withBatching(MicroBatcher batcher) {
+                this.batcher = batcher;
+                return this;
+        }
+
+        // Records outcome and latency per service and policy, as seen by the aggregation
+        // (cache hits included).
+        public AsyncProcessor withMetrics(ServiceMetrics metrics) {
+                this.metrics = metrics;
+                return this;
+        }
+
+        // Where FailPartial and FailSoft report the failures they absorb; defaults to the shared
+        // sampled stderr sink. Reporting never blocks the completing thread.
+        public AsyncProcessor withFailureSink(FailureSink failureSink) {
+                this.failureSink = failureSink;
+                return this;
+        }
+
+        // Retries transient failures with backoff. Each attempt passes the bulkhead and breaker
+        // and gets its own timeout; a Deadline, if given, bounds the whole retry sequence.
+        public AsyncProcessor withRetries(RetryPolicy retryPolicy) {
+                this.retryPolicy = retryPolicy;
+                return this;
+        }
+
+        // Keeps calls within each service's quota: a call over it is started later from a timer,
+        // or fails with RateLimitedException if the wait would outlast its deadline. Handled
+        // like an open breaker by every policy, and never retried. Share one registry (or
+        // RateLimiterRegistry.shared()) between processors so they draw on the same quota.
+        public AsyncProcessor withRateLimits(RateLimiterRegistry rateLimiters) {
+                this.rateLimiters = rateLimiters;
+                return this;
+        }
+
+        // Who enforces per-call timeouts; defaults to orTimeout. A HashedWheelTimer keeps
+        // scheduling and cancelling O(1) with hundreds of thousands of calls in flight.
+        public AsyncProcessor withTimeoutScheduler(TimeoutScheduler timeoutScheduler) {
+                this.timeoutScheduler = timeoutScheduler;
+                return this;
+        }
+
+        private CompletableFuture<String> timedRetrieve(Microservice client, String message,
+                        AggregationPolicy policy, Deadline deadline) {
+                if (metrics == null) {
+                        return cachedRetrieve(client, message, deadline);
+                }
+                ServiceMetrics.Series series = metrics.onStart(client.getServiceId(), policy);
+                long start = System.nanoTime();
+                CompletableFuture<String> call = cachedRetrieve(client, message, deadline);
+                call.whenComplete((r, ex) -> metrics.onComplete(series, System.nanoTime() - start, ex));
+                return call;
+        }
+
+        private CompletableFuture<String> cachedRetrieve(Microservice client, String message, Deadline deadline) {
+                if (cache != null) {
+                        return cache.retrieve(client.getServiceId(), message,
+                                        () -> sharedRetrieve(client, message, deadline));
+                }
+                return sharedRetrieve(client, message, deadline);
+        }
+
+        // A coalesced call runs under the deadline of the caller that started it.
+        private CompletableFuture<String> sharedRetrieve(Microservice client, String message, Deadline deadline) {
+                if (coalescer != null) {
+                        return coalescer.retrieve(client.getServiceId(), message,
+                                        () -> retriedRetrieve(client, message, deadline));
+                }
+                return retriedRetrieve(client, message, deadline);
+        }
+
+        private CompletableFuture<String> retriedRetrieve(Microservice client, String message, Deadline deadline) {
+                if (retryPolicy != null) {
+                        return retryPolicy.retrieve(() -> limitedRetrieve(client, message, deadline), deadline);
+                }
+                return limitedRetrieve(client, message, deadline);
+        }
+
+        // Every attempt is a request to the partner, so each takes a permit. The rate limit sits
+        // outside the bulkhead: a call waiting for its slot holds no concurrency permit, and
+        // the wait comes out of the deadline the call then runs under.
+        private CompletableFuture<String> limitedRetrieve(Microservice client, String message, Deadline deadline) {
+                RateLimiter limiter = rateLimiters == null ? null : rateLimiters.forService(client.getServiceId());
+                if (limiter != null) {
+                        return limiter.execute(() -> guardedRetrieve(client, message, deadline), deadline);
+                }
+                return guardedRetrieve(client, message, deadline);
+        }
+
+        // The bulkhead sits outside the breaker: a call it rejects or queues never takes a
+        // half-open probe, and queueing time does not count against the call's timeout.
+        private CompletableFuture<String> guardedRetrieve(Microservice client, String message, Deadline deadline) {
+                if (bulkheads != null) {
+                        return bulkheads.forService(client.getServiceId())
+                                        .execute(() -> protectedRetrieve(client, message, deadline));
+                }
+                return protectedRetrieve(client, message, deadline);
+        }
+
+        // One downstream call: deadline and breaker checks, optional hedging, timeout and
+        // outcome recording. The timeout is the service's own or what is left of the deadline,
+        // whichever is shorter; a call that is already doomed is not started.
+        private CompletableFuture<String> protectedRetrieve(Microservice client, String message,
+                        Deadline deadline) {
+                long remainingMs = deadline.remainingMs();
+                if (deadline.isExpired()) {
+                        return CompletableFuture.failedFuture(
+                                        new DeadlineExceededException(client.getServiceId(), "Deadline passed"));
+                }
+                if (adaptiveTimeouts != null
+                                && adaptiveTimeouts.expectedLatencyMs(client.getServiceId()) > remainingMs) {
+                        return CompletableFuture.failedFuture(new DeadlineExceededException(client.getServiceId(),
+                                        "Expected latency exceeds the " + remainingMs + " ms left"));
+                }
+
+                CircuitBreaker breaker = circuitBreakers == null ? null
+                                : circuitBreakers.forService(client.getServiceId());
+                CircuitBreaker.Permit permit = breaker == null ? null : breaker.tryAcquire();
+                if (breaker != null && permit == null) {
+                        return CompletableFuture.failedFuture(
+                                        new CallNotPermittedException(client.getServiceId(), "Circuit open"));
+                }
+
+                long serviceTimeoutMs = adaptiveTimeouts == null
+                                ? PER_SERVICE_TIMEOUT_MS
+                                : adaptiveTimeouts.timeoutMs(client.getServiceId());
+                // A timeout cut short by the deadline says nothing about the service's health.
+                boolean cutByDeadline = remainingMs < serviceTimeoutMs;
+                long timeoutMs = Math.max(1, Math.min(serviceTimeoutMs, remainingMs));
+                long start = System.nanoTime();
+
+                CompletableFuture<String> call = batcher != null
+                                ? batcher.retrieve(client, message, deadline)
+                                : hedgePolicy != null
+                                                ? hedgePolicy.retrieve(client, message, deadline)
+                                                : client.retrieveAsync(message, deadline);
                 // Enforce liveness: a hanging service cannot block aggregation forever.
-                return client.retrieveAsync(message)
-                                .orTimeout(PER_SERVICE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                timeoutScheduler.timeout(call, timeoutMs);
+
+                if (adaptiveTimeouts != null) {
+                        call.whenComplete((r, ex) -> {
+                                if (ex == null) {
+                                        adaptiveTimeouts.record(client.getServiceId(), System.nanoTime() - start);
+                                } else if (ex instanceof TimeoutException && !cutByDeadline) {
+                                        adaptiveTimeouts.recordTimeout(client.getServiceId(), timeoutMs);
+                                }
+                        });
+                }
+                if (permit != null) {
+                        call.whenComplete((r, ex) -> permit.onResult(ex instanceof TimeoutException && cutByDeadline
+                                        ? new CancellationException("Deadline reached")
+                                        : ex));
+                }
+                return call;
+        }
+
+        // Shared input validation: every policy pairs services with messages one-to-one.
+        private static boolean sizesMatch(List<Microservice> microservices, List<String> messages) {
+                return microservices.size() == messages.size();
+        }
+
+        private static <T> CompletableFuture<T> sizeMismatch() {
+                return CompletableFuture.failedFuture(
+                                new IllegalArgumentException("Services and messages size mismatch"));
         }
 
         // // processAsync: output order follows input list order (because you stream
         // // futures in list order after all complete).
         public CompletableFuture<String> processAsyncFailFast(List<Microservice> microservices, List<String> messages) {
+                return processAsyncFailFast(microservices, messages, Deadline.none());
+        }
 
-                if (microservices.size() != messages.size()) {
-                        return CompletableFuture.failedFuture(
-                                        new IllegalArgumentException("Services and messages size mismatch"));
+        // Deadline variants: every call's timeout is cut to the time left, and calls that cannot
+        // finish in time fail with DeadlineExceededException instead of being started.
+        public CompletableFuture<String> processAsyncFailFast(List<Microservice> microservices, List<String> messages,
+                        Deadline deadline) {
+
+                if (!sizesMatch(microservices, messages)) {
+                        return sizeMismatch();
                 }
 
                 List<CompletableFuture<String>> futures = IntStream.range(0, microservices.size())
-                                .mapToObj(i -> timedRetrieve(microservices.get(i), messages.get(i)))
+                                .mapToObj(i -> timedRetrieve(microservices.get(i), messages.get(i),
+                                                AggregationPolicy.FAIL_FAST, deadline))
                                 .collect(Collectors.toList());
 
-                return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                                .thenApply(v -> futures.stream()
+                CompletableFuture<String> aggregate = CompletableFuture
+                                .allOf(futures.toArray(new CompletableFuture[0]))
+                                .thenApplyAsync(v -> futures.stream()
                                                 .map(CompletableFuture::join)
-                                                .collect(Collectors.joining(" ")));
+                                                .collect(Collectors.joining(" ")), aggregationExecutor);
+
+                // Short-circuit: the first failure completes the aggregate right away instead of
+                // waiting in allOf for the slowest sibling...
+                futures.forEach(f -> f.whenComplete((r, ex) -> {
+                        if (ex != null) {
+                                aggregate.completeExceptionally(ex);
+                        }
+                }));
+                // ...and once the aggregate has failed (or the caller cancelled it) the outstanding
+                // calls are cancelled, which interrupts or dequeues them in Microservice.
+                aggregate.whenComplete((r, ex) -> {
+                        if (ex != null) {
+                                futures.forEach(f -> f.cancel(true));
+                        }
+                });
+                return aggregate;
         }
 
         public CompletableFuture<List<String>> processAsyncFailPartial(List<Microservice> microservices,
                         List<String> messages) {
+                return processAsyncFailPartial(microservices, messages, Deadline.none());
+        }
 
-                if (microservices.size() != messages.size()) {
-                        return CompletableFuture.failedFuture(
-                                        new IllegalArgumentException("Services and messages size mismatch"));
+        public CompletableFuture<List<String>> processAsyncFailPartial(List<Microservice> microservices,
+                        List<String> messages, Deadline deadline) {
+
+                if (!sizesMatch(microservices, messages)) {
+                        return sizeMismatch();
                 }
 
                 List<CompletableFuture<String>> futures = IntStream.range(0, microservices.size())
-                                .mapToObj(i -> timedRetrieve(microservices.get(i), messages.get(i))
+                                .mapToObj(i -> timedRetrieve(microservices.get(i), messages.get(i),
+                                                AggregationPolicy.FAIL_PARTIAL, deadline)
                                                 .exceptionally((ex) -> {
-                                                        System.err.println("[FailPartial] Service failed: "
-                                                                        + ex.getMessage());
+                                                        failureSink.record(microservices.get(i).getServiceId(),
+                                                                        AggregationPolicy.FAIL_PARTIAL, ex);
                                                         return null;
                                                 }))
                                 .collect(Collectors.toList());
 
                 return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                                .thenApply(v -> futures.stream()
+                                .thenApplyAsync(v -> futures.stream()
                                                 .map(CompletableFuture::join)
                                                 .filter(result -> result != null)
-                                                .collect(Collectors.toList()));
+                                                .collect(Collectors.toList()), aggregationExecutor);
 
         }
 
         public CompletableFuture<String> processAsyncFailSoft(List<Microservice> microservices, List<String> messages,
                         String fallbackValue) {
+                return processAsyncFailSoft(microservices, messages, fallbackValue, Deadline.none());
+        }
 
-                if (microservices.size() != messages.size()) {
-                        return CompletableFuture.failedFuture(
-                                        new IllegalArgumentException("Services and messages size mismatch"));
+        public CompletableFuture<String> processAsyncFailSoft(List<Microservice> microservices, List<String> messages,
+                        String fallbackValue, Deadline deadline) {
+
+                if (!sizesMatch(microservices, messages)) {
+                        return sizeMismatch();
                 }
 
                 List<CompletableFuture<String>> futures = IntStream.range(0, microservices.size())
-                                .mapToObj(i -> timedRetrieve(microservices.get(i), messages.get(i))
+                                .mapToObj(i -> timedRetrieve(microservices.get(i), messages.get(i),
+                                                AggregationPolicy.FAIL_SOFT, deadline)
                                                 .exceptionally((ex) -> {
-                                                        System.err.println("[FailSoft] Service failed: "
-                                                                        + ex.getMessage());
+                                                        failureSink.record(microservices.get(i).getServiceId(),
+                                                                        AggregationPolicy.FAIL_SOFT, ex);
                                                         return fallbackValue;
                                                 }))
                                 .collect(Collectors.toList());
 
                 return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                                .thenApply(v -> futures.stream()
+                                .thenApplyAsync(v -> futures.stream()
                                                 .map(CompletableFuture::join)
-                                                .collect(Collectors.joining(" ")));
+                                                .collect(Collectors.joining(" ")), aggregationExecutor);
 
         }
 
-        // In processAsyncCompletionOrder, each future adds to a synchronized list when
-        // it completes
+        // In processAsyncCompletionOrder, each future claims the next slot of a pre-sized
+        // lock-free collector when it completes
         // so list order is fastest-first (non-deterministic).
         public CompletableFuture<List<String>> processAsyncCompletionOrder(
                         List<Microservice> microservices, String message) {
+                return processAsyncCompletionOrder(microservices, message, Deadline.none());
+        }
+
+        public CompletableFuture<List<String>> processAsyncCompletionOrder(
+                        List<Microservice> microservices, String message, Deadline deadline) {
 
-                List<String> completionOrder = Collections.synchronizedList(new ArrayList<>());
+                CompletionCollector completionOrder = new CompletionCollector(microservices.size());
 
                 List<CompletableFuture<Void>> futures = microservices.stream()
-                                .map(ms -> timedRetrieve(ms, message)
+                                .map(ms -> timedRetrieve(ms, message, AggregationPolicy.COMPLETION_ORDER, deadline)
                                                 .thenAccept(completionOrder::add))
                                 .collect(Collectors.toList());
 
                 return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                                .thenApply(v -> completionOrder);
+                                .thenApplyAsync(v -> completionOrder.toList(), aggregationExecutor);
+
+        }
+
+        // Push-based variant of processAsyncCompletionOrder: each result is published the moment
+        // its call completes, so the first answer does not wait for the slowest service. Calls
+        // start on subscribe and honour the subscriber's demand.
+        public Flow.Publisher<String> processAsyncCompletionStream(List<Microservice> microservices, String message) {
+                return processAsyncCompletionStream(microservices, message, Deadline.none());
+        }
+
+        // The deadline is fixed by the caller, not by subscribe: a late subscriber gets less time.
+        public Flow.Publisher<String> processAsyncCompletionStream(List<Microservice> microservices, String message,
+                        Deadline deadline) {
+                return new CompletionPublisher(() -> microservices.stream()
+                                .map(ms -> timedRetrieve(ms, message, AggregationPolicy.COMPLETION_STREAM, deadline))
+                                .collect(Collectors.toList()));
+        }
+
+        // Quorum: completes with the first `required` successful results (fastest-first) as soon
+        // as they are in and cancels the remaining calls. Fails once so many calls have failed
+        // that `required` successes are no longer possible.
+        public CompletableFuture<List<String>> processAsyncQuorum(List<Microservice> microservices,
+                        List<String> messages, int required) {
+                return processAsyncQuorum(microservices, messages, required, Deadline.none());
+        }
+
+        public CompletableFuture<List<String>> processAsyncQuorum(List<Microservice> microservices,
+                        List<String> messages, int required, Deadline deadline) {
+
+                if (!sizesMatch(microservices, messages)) {
+                        return sizeMismatch();
+                }
+                int total = microservices.size();
+                if (required < 1 || required > total) {
+                        return CompletableFuture.failedFuture(new IllegalArgumentException(
+                                        "Quorum must be between 1 and " + total + ", was " + required));
+                }
+
+                CompletableFuture<List<String>> quorum = new CompletableFuture<>();
+                AtomicReferenceArray<String> winners = new AtomicReferenceArray<>(required);
+                AtomicInteger claimed = new AtomicInteger();
+                AtomicInteger filled = new AtomicInteger();
+                AtomicInteger failed = new AtomicInteger();
+
+                List<CompletableFuture<String>> futures = IntStream.range(0, total)
+                                .mapToObj(i -> timedRetrieve(microservices.get(i), messages.get(i),
+                                                AggregationPolicy.QUORUM, deadline))
+                                .collect(Collectors.toList());
+
+                futures.forEach(f -> f.whenComplete((r, ex) -> {
+                        if (ex == null) {
+                                int slot = claimed.getAndIncrement();
+                                if (slot < required) {
+                                        winners.set(slot, r);
+                                        // filled, not claimed, decides: every slot is written by then
+                                        if (filled.incrementAndGet() == required) {
+                                                List<String> results = new ArrayList<>(required);
+                                                for (int i = 0; i < required; i++) {
+                                                        results.add(winners.get(i));
+                                                }
+                                                quorum.complete(results);
+                                        }
+                                }
+                        } else if (failed.incrementAndGet() == total - required + 1) {
+                                quorum.completeExceptionally(new QuorumNotReachedException(required,
+                                                total, failed.get(), ex));
+                        }
+                }));
+                quorum.whenComplete((r, ex) -> futures.forEach(f -> f.cancel(true)));
+                return quorum;
+        }
+
+        // Windowed variants for very large lists: at most `window` calls are outstanding at once
+        // and results stream into `sink` (see WriterSink for a Writer) instead of being collected,
+        // so memory is O(window) rather than O(N). FailFast, FailPartial and FailSoft deliver in
+        // input order; CompletionOrder delivers as calls complete. Each completes with the number
+        // of results delivered; sink runs on the aggregation executor, one result at a time.
+        public CompletableFuture<Long> processAsyncFailFastWindowed(List<Microservice> microservices,
+                        List<String> messages, int window, Consumer<String> sink) {
+                return processAsyncFailFastWindowed(microservices, messages, window, sink, Deadline.none());
+        }
+
+        // Deadline variants: one budget for the whole run. Calls still pending when it passes time
+        // out, and calls not yet started fail with DeadlineExceededException, each handled by the
+        // policy as usual.
+        public CompletableFuture<Long> processAsyncFailFastWindowed(List<Microservice> microservices,
+                        List<String> messages, int window, Consumer<String> sink, Deadline deadline) {
+                return windowed(microservices, messages, window, true, AggregationPolicy.FAIL_FAST, null, sink,
+                                deadline);
+        }
+
+        public CompletableFuture<Long> processAsyncFailPartialWindowed(List<Microservice> microservices,
+                        List<String> messages, int window, Consumer<String> sink) {
+                return processAsyncFailPartialWindowed(microservices, messages, window, sink, Deadline.none());
+        }
+
+        public CompletableFuture<Long> processAsyncFailPartialWindowed(List<Microservice> microservices,
+                        List<String> messages, int window, Consumer<String> sink, Deadline deadline) {
+                return windowed(microservices, messages, window, true, AggregationPolicy.FAIL_PARTIAL, null, sink,
+                                deadline);
+        }
+
+        public CompletableFuture<Long> processAsyncFailSoftWindowed(List<Microservice> microservices,
+                        List<String> messages, String fallbackValue, int window, Consumer<String> sink) {
+                return processAsyncFailSoftWindowed(microservices, messages, fallbackValue, window, sink,
+                                Deadline.none());
+        }
+
+        public CompletableFuture<Long> processAsyncFailSoftWindowed(List<Microservice> microservices,
+                        List<String> messages, String fallbackValue, int window, Consumer<String> sink,
+                        Deadline deadline) {
+                return windowed(microservices, messages, window, true, AggregationPolicy.FAIL_SOFT, fallbackValue,
+                                sink, deadline);
+        }
+
+        public CompletableFuture<Long> processAsyncCompletionOrderWindowed(List<Microservice> microservices,
+                        String message, int window, Consumer<String> sink) {
+                return processAsyncCompletionOrderWindowed(microservices, message, window, sink, Deadline.none());
+        }
+
+        public CompletableFuture<Long> processAsyncCompletionOrderWindowed(List<Microservice> microservices,
+                        String message, int window, Consumer<String> sink, Deadline deadline) {
+                return windowed(microservices, Collections.nCopies(microservices.size(), message), window, false,
+                                AggregationPolicy.COMPLETION_ORDER, null, sink, deadline);
+        }
+
+        private CompletableFuture<Long> windowed(List<Microservice> microservices, List<String> messages,
+                        int window, boolean ordered, AggregationPolicy policy, String fallbackValue,
+                        Consumer<String> sink, Deadline deadline) {
+                if (!sizesMatch(microservices, messages)) {
+                        return sizeMismatch();
+                }
+                if (window < 1) {
+                        return CompletableFuture.failedFuture(
+                                        new IllegalArgumentException("Window must be >= 1, was " + window));
+                }
+                return new WindowedExecution(microservices.size(), window, ordered, policy, fallbackValue,
+                                i -> timedRetrieve(microservices.get(i), messages.get(i), policy, deadline),
+                                (ex, i) -> failureSink.record(microservices.get(i).getServiceId(), policy, ex),
+                                sink, aggregationExecutor).start();
+        }
+
+        // Runs a ServiceGraph: each node's call starts once its dependencies have answered and
+        // goes through the same call path (cache, retries, bulkhead, breaker, timeout) as the
+        // flat policies, with metrics labelled by the node's failure policy.
+        public CompletableFuture<Map<String, String>> processAsyncGraph(ServiceGraph graph) {
+                return processAsyncGraph(graph, Deadline.none());
+        }
 
+        public CompletableFuture<Map<String, String>> processAsyncGraph(ServiceGraph graph, Deadline deadline) {
+                return new GraphExecution(graph.nodes(),
+                                (node, message) -> timedRetrieve(node.service, message, node.policy, deadline),
+                                (node, ex) -> failureSink.record(node.service.getServiceId(), node.policy, ex))
+                                .start();
         }
 
 }
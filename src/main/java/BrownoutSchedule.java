@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.List;
+
+//BrownoutSchedule.java: time-varying degradation for SimulatedMicroservice. Each window,
+// measured from the start of the simulation, multiplies latency and adds a failure
+// probability while it is active; overlapping windows compound. With repeatEvery the whole
+// schedule recurs, e.g. a 2 s brownout every 30 s.
+
+public final class BrownoutSchedule {
+
+    private final List<Window> windows = new ArrayList<>();
+    private long periodMs;
+
+    // Configure before the schedule is handed to a SimulatedMicroservice.
+    public BrownoutSchedule add(long startMs, long durationMs, double latencyMultiplier, double failureProbability) {
+        if (startMs < 0 || durationMs <= 0 || latencyMultiplier <= 0
+                || failureProbability < 0 || failureProbability > 1) {
+            throw new IllegalArgumentException("need startMs >= 0, durationMs > 0, latencyMultiplier > 0 "
+                    + "and failureProbability in [0, 1]");
+        }
+        windows.add(new Window(startMs, startMs + durationMs, latencyMultiplier, failureProbability));
+        return this;
+    }
+
+    public BrownoutSchedule repeatEvery(long periodMs) {
+        if (periodMs <= 0) {
+            throw new IllegalArgumentException("periodMs must be > 0");
+        }
+        this.periodMs = periodMs;
+        return this;
+    }
+
+    double latencyMultiplierAt(long elapsedMs) {
+        long t = position(elapsedMs);
+        double multiplier = 1;
+        for (Window window : windows) {
+            if (window.contains(t)) {
+                multiplier *= window.latencyMultiplier;
+            }
+        }
+        return multiplier;
+    }
+
+    double failureProbabilityAt(long elapsedMs) {
+        long t = position(elapsedMs);
+        double survive = 1;
+        for (Window window : windows) {
+            if (window.contains(t)) {
+                survive *= 1 - window.failureProbability;
+            }
+        }
+        return 1 - survive;
+    }
+
+    private long position(long elapsedMs) {
+        return periodMs > 0 ? elapsedMs % periodMs : elapsedMs;
+    }
+
+    private static final class Window {
+        final long fromMs;
+        final long toMs;
+        final double latencyMultiplier;
+        final double failureProbability;
+
+        Window(long fromMs, long toMs, double latencyMultiplier, double failureProbability) {
+            this.fromMs = fromMs;
+            this.toMs = toMs;
+            this.latencyMultiplier = latencyMultiplier;
+            this.failureProbability = failureProbability;
+        }
+
+        boolean contains(long t) {
+            return t >= fromMs && t < toMs;
+        }
+    }
+}
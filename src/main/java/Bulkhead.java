@@ -0,0 +1,185 @@
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+//Bulkhead.java: caps the in-flight calls to one service id so a slow service cannot take
+// every thread and connection with it.
+// - under maxConcurrentCalls: the call starts at once;
+// - at the cap, maxWaitingCalls == 0: rejected straight away with BulkheadFullException;
+// - at the cap otherwise: queued (FIFO) for at most maxWaitMs, then rejected. A full queue
+//   rejects straight away.
+// Nothing blocks: permits are a CAS'd counter, waiters are futures that a finishing call
+// hands its permit to directly. A new call only takes a free permit when nobody is queued,
+// so it cannot overtake the waiters.
+
+public final class Bulkhead {
+
+    private final String serviceId;
+    private final int maxConcurrentCalls;
+    private final int maxWaitingCalls;
+    private final long maxWaitMs;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Queue<Waiter> queue = new ConcurrentLinkedQueue<>(); // may hold timed-out waiters
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String serviceId, int maxConcurrentCalls, int maxWaitingCalls, long maxWaitMs,
+            ScheduledExecutorService scheduler) {
+        if (maxConcurrentCalls <= 0 || maxWaitingCalls < 0 || maxWaitMs < 0) {
+            throw new IllegalArgumentException("maxConcurrentCalls must be > 0, waiting limits >= 0");
+        }
+        this.serviceId = serviceId;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitingCalls = maxWaitingCalls;
+        this.maxWaitMs = maxWaitMs;
+        this.scheduler = scheduler;
+    }
+
+    public Bulkhead(String serviceId, int maxConcurrentCalls, int maxWaitingCalls, long maxWaitMs) {
+        this(serviceId, maxConcurrentCalls, maxWaitingCalls, maxWaitMs, ServiceExecutors.scheduler());
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int waiting() {
+        return waiting.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    // Runs call once a permit is free; the permit is returned when its future completes.
+    public CompletableFuture<String> execute(Supplier<CompletableFuture<String>> call) {
+        if (waiting.get() == 0 && tryAcquire()) {
+            return start(call);
+        }
+        if (maxWaitingCalls == 0 || maxWaitMs == 0) {
+            return reject("Bulkhead full");
+        }
+        if (waiting.incrementAndGet() > maxWaitingCalls) {
+            waiting.decrementAndGet();
+            return reject("Bulkhead full and wait queue full");
+        }
+
+        Waiter waiter = new Waiter(call);
+        waiter.timeout = scheduler.schedule(() -> {
+            if (waiter.claim()) {
+                rejected.increment();
+                waiter.result.completeExceptionally(new BulkheadFullException(serviceId,
+                        "Bulkhead wait of " + maxWaitMs + " ms exceeded"));
+            }
+        }, maxWaitMs, TimeUnit.MILLISECONDS);
+        waiter.result.whenComplete((r, ex) -> waiter.claim()); // a caller giving up leaves the queue
+        queue.offer(waiter);
+        dispatch(); // a permit may have come free between tryAcquire and offer
+        return waiter.result;
+    }
+
+    private CompletableFuture<String> reject(String reason) {
+        rejected.increment();
+        return CompletableFuture.failedFuture(new BulkheadFullException(serviceId, reason));
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxConcurrentCalls) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private CompletableFuture<String> start(Supplier<CompletableFuture<String>> call) {
+        CompletableFuture<String> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((r, ex) -> release());
+        return future;
+    }
+
+    // The permit goes straight to the oldest live waiter; only with none left does it return
+    // to the counter.
+    private void release() {
+        Waiter waiter;
+        while ((waiter = queue.poll()) != null) {
+            if (waiter.claim()) {
+                run(waiter);
+                return;
+            }
+        }
+        inFlight.decrementAndGet();
+        dispatch();
+    }
+
+    // Hands free permits to queued waiters. Re-checks the queue after giving a permit back,
+    // so a waiter enqueued while this thread briefly held the permit is not stranded.
+    private void dispatch() {
+        while (!queue.isEmpty() && tryAcquire()) {
+            Waiter waiter = queue.poll();
+            if (waiter == null || !waiter.claim()) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            run(waiter);
+        }
+    }
+
+    // Starts a claimed waiter's call under the permit it was handed.
+    private void run(Waiter waiter) {
+        waiter.timeout.cancel(false);
+        CompletableFuture<String> call = start(waiter.call);
+        call.whenComplete((r, ex) -> {
+            if (ex == null) {
+                waiter.result.complete(r);
+            } else {
+                waiter.result.completeExceptionally(ex);
+            }
+        });
+        waiter.result.whenComplete((r, ex) -> {
+            if (waiter.result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+    }
+
+    private final class Waiter {
+        final Supplier<CompletableFuture<String>> call;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final AtomicBoolean claimed = new AtomicBoolean();
+        volatile ScheduledFuture<?> timeout;
+
+        Waiter(Supplier<CompletableFuture<String>> call) {
+            this.call = call;
+        }
+
+        // Exactly one of dispatch, the wait timeout or the caller's cancel wins the waiter.
+        boolean claim() {
+            if (claimed.compareAndSet(false, true)) {
+                waiting.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+//BulkheadFullException.java: a call was refused because its service's bulkhead had no free permit.
+
+public class BulkheadFullException extends CallNotPermittedException {
+
+    public BulkheadFullException(String serviceId, String reason) {
+        super(serviceId, reason);
+    }
+}
@@ -0,0 +1,40 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+//BulkheadRegistry.java: one Bulkhead per service id, all with the same limits.
+
+public final class BulkheadRegistry {
+
+    private final int maxConcurrentCalls;
+    private final int maxWaitingCalls;
+    private final long maxWaitMs;
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    // maxWaitingCalls == 0 rejects at the cap; otherwise up to maxWaitingCalls wait maxWaitMs.
+    public BulkheadRegistry(int maxConcurrentCalls, int maxWaitingCalls, long maxWaitMs) {
+        if (maxConcurrentCalls <= 0 || maxWaitingCalls < 0 || maxWaitMs < 0) {
+            throw new IllegalArgumentException("maxConcurrentCalls must be > 0, waiting limits >= 0");
+        }
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitingCalls = maxWaitingCalls;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    public Bulkhead forService(String serviceId) {
+        Bulkhead bulkhead = bulkheads.get(serviceId); // avoid computeIfAbsent's bin lock on the hot path
+        if (bulkhead == null) {
+            bulkhead = bulkheads.computeIfAbsent(serviceId,
+                    id -> new Bulkhead(id, maxConcurrentCalls, maxWaitingCalls, maxWaitMs));
+        }
+        return bulkhead;
+    }
+
+    public Map<String, Integer> inFlight() {
+        Map<String, Integer> snapshot = new TreeMap<>();
+        bulkheads.forEach((id, bulkhead) -> snapshot.put(id, bulkhead.inFlight()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+}
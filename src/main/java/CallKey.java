@@ -0,0 +1,35 @@
+import java.util.Objects;
+
+//CallKey.java: (serviceId, input) identity of a call, for coalescing and caching.
+
+final class CallKey {
+
+    final String serviceId;
+    final String input;
+    private final int hash;
+
+    CallKey(String serviceId, String input) {
+        this.serviceId = serviceId;
+        this.input = input;
+        this.hash = 31 * serviceId.hashCode() + Objects.hashCode(input);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CallKey)) {
+            return false;
+        }
+        CallKey other = (CallKey) o;
+        return serviceId.equals(other.serviceId) && Objects.equals(input, other.input);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return serviceId + ":" + input;
+    }
+}
@@ -0,0 +1,16 @@
+//CallNotPermittedException.java: a call was refused locally (circuit open, bulkhead full, rate
+// limited) without reaching the service.
+
+public class CallNotPermittedException extends RuntimeException {
+
+    private final String serviceId;
+
+    public CallNotPermittedException(String serviceId, String reason) {
+        super(reason + " for " + serviceId);
+        this.serviceId = serviceId;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+}
@@ -0,0 +1,219 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+//CircuitBreaker.java: closed / open / half-open breaker for one service id.
+// CLOSED: calls flow; outcomes go into a count-based sliding window. Once at least
+//         minimumCalls are in the window and the failure rate reaches the threshold -> OPEN.
+// OPEN: calls are refused without touching the service until openDurationMs has passed.
+// HALF_OPEN: up to probeCalls calls go through; all succeed -> CLOSED, any fails -> OPEN.
+//
+// All state hangs off one AtomicReference<Phase>. Every transition installs a fresh Phase
+// with its own counters, so nothing is ever reset in place and no lock is needed.
+
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String serviceId;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int probeCalls;
+
+    private final AtomicReference<Phase> phase;
+
+    public CircuitBreaker(String serviceId, int windowSize, int minimumCalls, double failureRateThreshold,
+            long openDurationMs, int probeCalls) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("need 0 < minimumCalls <= windowSize");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("failureRateThreshold must be in (0, 1]");
+        }
+        if (probeCalls <= 0) {
+            throw new IllegalArgumentException("probeCalls must be > 0");
+        }
+        this.serviceId = serviceId;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.probeCalls = probeCalls;
+        this.phase = new AtomicReference<>(closed());
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public State state() {
+        Phase current = phase.get();
+        if (current.state == State.OPEN && System.nanoTime() - current.since >= openDurationNanos) {
+            return State.HALF_OPEN; // will flip on the next tryAcquire
+        }
+        return current.state;
+    }
+
+    public double failureRate() {
+        Phase current = phase.get();
+        return current.window == null ? 1.0 : current.window.failureRate();
+    }
+
+    // null when refused. Otherwise exactly one onResult must follow on the returned permit,
+    // which remembers the phase the call was admitted in: only calls admitted while
+    // HALF_OPEN are probes and count towards (or hand back) the probe slots.
+    public Permit tryAcquire() {
+        while (true) {
+            Phase current = phase.get();
+            if (current.state == State.CLOSED) {
+                return current.permit;
+            }
+            if (current.state == State.OPEN) {
+                if (System.nanoTime() - current.since < openDurationNanos) {
+                    return null;
+                }
+                phase.compareAndSet(current, halfOpen());
+                continue; // re-read: we or a competing caller installed HALF_OPEN
+            }
+            if (current.probesIssued.incrementAndGet() <= probeCalls) {
+                return current.permit;
+            }
+            current.probesIssued.decrementAndGet();
+            return null;
+        }
+    }
+
+    // ex == null is a success. Cancellations (e.g. a FailFast sibling) and rejections by our own
+    // bounded pool (the call never left this process) say nothing about the service's health
+    // and are not counted.
+    private void onResult(Phase admittedIn, Throwable ex) {
+        Phase current = phase.get();
+        boolean failed = ex != null;
+        if (admittedIn.state == State.HALF_OPEN) {
+            if (current != admittedIn) {
+                return; // a probe of a half-open phase that has already ended
+            }
+            if (notAboutService(ex)) {
+                current.probesIssued.decrementAndGet(); // hand the probe slot back
+            } else if (failed) {
+                phase.compareAndSet(current, open());
+            } else if (current.probeSuccesses.incrementAndGet() >= probeCalls) {
+                phase.compareAndSet(current, closed());
+            }
+            return;
+        }
+        if (notAboutService(ex)) {
+            return;
+        }
+        if (current.state == State.CLOSED) {
+            current.window.record(failed);
+            if (current.window.calls() >= minimumCalls && current.window.failureRate() >= failureRateThreshold) {
+                phase.compareAndSet(current, open());
+            }
+        }
+        // OPEN or HALF_OPEN: a call admitted before the breaker tripped; it is not a probe.
+    }
+
+    private static boolean notAboutService(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof CancellationException || cause instanceof RejectedExecutionException;
+    }
+
+    @Override
+    public String toString() {
+        return serviceId + "[" + state() + "]";
+    }
+
+    private Phase closed() {
+        return new Phase(State.CLOSED, System.nanoTime(), new OutcomeWindow(windowSize));
+    }
+
+    private Phase open() {
+        return new Phase(State.OPEN, System.nanoTime(), null);
+    }
+
+    private Phase halfOpen() {
+        return new Phase(State.HALF_OPEN, System.nanoTime(), null);
+    }
+
+    // Proof of admission. Every call admitted in the same phase shares one, so admitting a
+    // call allocates nothing.
+    public final class Permit {
+        private final Phase admittedIn;
+
+        private Permit(Phase admittedIn) {
+            this.admittedIn = admittedIn;
+        }
+
+        public boolean isProbe() {
+            return admittedIn.state == State.HALF_OPEN;
+        }
+
+        public void onResult(Throwable ex) {
+            CircuitBreaker.this.onResult(admittedIn, ex);
+        }
+    }
+
+    private final class Phase {
+        final State state;
+        final long since;
+        final OutcomeWindow window; // CLOSED only
+        final AtomicInteger probesIssued = new AtomicInteger(); // HALF_OPEN only
+        final AtomicInteger probeSuccesses = new AtomicInteger(); // HALF_OPEN only
+        final Permit permit = new Permit(this); // CLOSED and HALF_OPEN
+
+        Phase(State state, long since, OutcomeWindow window) {
+            this.state = state;
+            this.since = since;
+            this.window = window;
+        }
+    }
+
+    // Ring of the last N outcomes (0 = empty, 1 = success, 2 = failure) with running totals
+    // kept in step by getAndSet on the overwritten slot.
+    private static final class OutcomeWindow {
+        private static final int EMPTY = 0;
+        private static final int SUCCESS = 1;
+        private static final int FAILURE = 2;
+
+        private final AtomicIntegerArray outcomes;
+        private final AtomicLong next = new AtomicLong();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        OutcomeWindow(int size) {
+            this.outcomes = new AtomicIntegerArray(size);
+        }
+
+        void record(boolean failed) {
+            int slot = (int) (next.getAndIncrement() % outcomes.length());
+            int previous = outcomes.getAndSet(slot, failed ? FAILURE : SUCCESS);
+            if (previous == EMPTY) {
+                calls.incrementAndGet();
+            } else if (previous == FAILURE) {
+                failures.decrementAndGet();
+            }
+            if (failed) {
+                failures.incrementAndGet();
+            }
+        }
+
+        int calls() {
+            return calls.get();
+        }
+
+        double failureRate() {
+            int n = calls.get();
+            return n == 0 ? 0.0 : (double) failures.get() / n;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+//CircuitBreakerRegistry.java: one CircuitBreaker per service id, all with the same settings.
+
+public final class CircuitBreakerRegistry {
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMs;
+    private final int probeCalls;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerRegistry(int windowSize, int minimumCalls, double failureRateThreshold,
+            long openDurationMs, int probeCalls) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.probeCalls = probeCalls;
+    }
+
+    // Window of 20 calls, opens at 50% failures once 10 calls are in, 5s open, 3 probes.
+    public CircuitBreakerRegistry() {
+        this(20, 10, 0.5, 5_000, 3);
+    }
+
+    public CircuitBreaker forService(String serviceId) {
+        CircuitBreaker breaker = breakers.get(serviceId); // avoid computeIfAbsent's bin lock on the hot path
+        if (breaker == null) {
+            breaker = breakers.computeIfAbsent(serviceId, id -> new CircuitBreaker(id, windowSize, minimumCalls,
+                    failureRateThreshold, openDurationMs, probeCalls));
+        }
+        return breaker;
+    }
+
+    public Map<String, CircuitBreaker.State> states() {
+        Map<String, CircuitBreaker.State> snapshot = new TreeMap<>();
+        breakers.forEach((id, breaker) -> snapshot.put(id, breaker.state()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+}
@@ -0,0 +1,155 @@
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+//CompletionPublisher.java: pushes each service result to a Flow.Subscriber the moment it
+// completes (fastest first), within the subscriber's demand. Cold and single-use: the calls
+// start when the subscriber subscribes. The first failure cancels the outstanding calls and
+// is signalled straight away (onError is not subject to demand), like FailFast.
+
+final class CompletionPublisher implements Flow.Publisher<String> {
+
+    private final Supplier<List<CompletableFuture<String>>> calls;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    CompletionPublisher(Supplier<List<CompletableFuture<String>>> calls) {
+        this.calls = calls;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("CompletionPublisher allows a single subscriber"));
+            return;
+        }
+        CompletionSubscription subscription = new CompletionSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.start(calls.get());
+    }
+
+    private static final class CompletionSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super String> subscriber;
+        private final Queue<String> ready = new ConcurrentLinkedQueue<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger(); // serialises drain()
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private volatile List<CompletableFuture<String>> futures = List.of();
+        private volatile Throwable error;
+        private volatile boolean cancelled;
+        private volatile boolean started;
+        private boolean terminated; // only touched inside drain()
+
+        CompletionSubscription(Flow.Subscriber<? super String> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void start(List<CompletableFuture<String>> calls) {
+            futures = calls;
+            pending.set(calls.size());
+            started = true;
+            for (CompletableFuture<String> call : calls) {
+                call.whenComplete((r, ex) -> {
+                    if (ex == null) {
+                        ready.offer(r);
+                    } else if (error == null) {
+                        error = ex;
+                    }
+                    pending.decrementAndGet();
+                    drain();
+                });
+            }
+            if (cancelled) {
+                cancelAll();
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("request must be > 0 (rule 3.9), was " + n);
+            } else {
+                long current;
+                do {
+                    current = requested.get();
+                    if (current == Long.MAX_VALUE) {
+                        break;
+                    }
+                } while (!requested.compareAndSet(current, addCap(current, n)));
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancelAll();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (terminated || cancelled) {
+                    return;
+                }
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand && error == null && !cancelled) {
+                    String next = ready.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    subscriber.onNext(next);
+                    emitted++;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                if (cancelled) {
+                    return;
+                }
+                Throwable failure = error;
+                if (failure != null) {
+                    terminated = true;
+                    cancelAll();
+                    subscriber.onError(failure);
+                    return;
+                }
+                if (started && pending.get() == 0 && ready.isEmpty()) {
+                    terminated = true;
+                    subscriber.onComplete();
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void cancelAll() {
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        private static long addCap(long a, long b) {
+            long sum = a + b;
+            return sum < 0 ? Long.MAX_VALUE : sum;
+        }
+    }
+}
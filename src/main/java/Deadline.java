@@ -0,0 +1,70 @@
+import java.util.concurrent.TimeUnit;
+
+//Deadline.java: the point in time by which a whole request must be answered. One Deadline
+// is passed down through every aggregation and call made for that request, so nested and
+// sequential steps share one budget instead of each adding its own timeout.
+
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(0, false);
+
+    private final long expiresAtNanos; // System.nanoTime() based; compare by subtraction
+    private final boolean bounded;
+
+    private Deadline(long expiresAtNanos, boolean bounded) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.bounded = bounded;
+    }
+
+    public static Deadline after(long timeoutMs) {
+        return after(System.nanoTime(), timeoutMs);
+    }
+
+    // timeoutMs after startNanos, a System.nanoTime() reading taken earlier: e.g. when the
+    // request arrived rather than when it was picked up.
+    public static Deadline after(long startNanos, long timeoutMs) {
+        return new Deadline(startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMs)), true);
+    }
+
+    // No deadline: calls keep their per-service timeouts.
+    public static Deadline none() {
+        return NONE;
+    }
+
+    // The earlier of this deadline and timeoutMs from now, e.g. for one step of a larger request.
+    public Deadline within(long timeoutMs) {
+        Deadline candidate = after(timeoutMs);
+        return !bounded || candidate.expiresAtNanos - expiresAtNanos < 0 ? candidate : this;
+    }
+
+    // The later of the two, e.g. for one call made on behalf of several requests.
+    public Deadline orLater(Deadline other) {
+        if (!bounded || !other.bounded) {
+            return NONE;
+        }
+        return other.expiresAtNanos - expiresAtNanos > 0 ? other : this;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean isExpired() {
+        return bounded && expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    // Long.MAX_VALUE when unbounded, 0 once expired.
+    public long remainingNanos() {
+        return bounded ? Math.max(0, expiresAtNanos - System.nanoTime()) : Long.MAX_VALUE;
+    }
+
+    // Rounded down, so a call is never given more time than is left.
+    public long remainingMs() {
+        return bounded ? TimeUnit.NANOSECONDS.toMillis(remainingNanos()) : Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return bounded ? "Deadline[" + remainingMs() + " ms left]" : "Deadline[none]";
+    }
+}
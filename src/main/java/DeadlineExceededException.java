@@ -0,0 +1,16 @@
+//DeadlineExceededException.java: a call was not started because the request's deadline had
+// passed, or because the service could not be expected to answer in the time left.
+
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String serviceId;
+
+    public DeadlineExceededException(String serviceId, String reason) {
+        super(reason + " for " + serviceId);
+        this.serviceId = serviceId;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+//FailureSink.java: failure reporting off the completing thread.
+// record() never blocks and never does I/O:
+// - sampling/dedup: per service id, at most one event per intervalMs is queued; the rest are
+//   counted and reported with that service's next queued event as "(+N suppressed)";
+// - the queue is a bounded ring (Vyukov-style MPSC): a producer claims a slot by CAS and
+//   publishes it through the slot's sequence number; when the ring is full the event is
+//   dropped and counted, never waited for;
+// - slots are preallocated parallel arrays, so queueing an event allocates nothing.
+// One daemon thread drains the ring, formats the events and does the I/O.
+
+public final class FailureSink implements AutoCloseable {
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final String[] serviceIds;
+    private final AggregationPolicy[] policies;
+    private final Throwable[] failures;
+    private final long[] suppressedCounts;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // written only by the drain thread
+    private volatile boolean closed;
+
+    private final long intervalNanos;
+    private final Map<String, Sampler> samplers = new ConcurrentHashMap<>();
+    private final Appendable out;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread drainer;
+
+    // capacity is rounded up to a power of two; intervalMs == 0 queues every failure.
+    public FailureSink(int capacity, long intervalMs, Appendable out) {
+        if (capacity <= 0 || intervalMs < 0) {
+            throw new IllegalArgumentException("capacity must be > 0 and intervalMs >= 0");
+        }
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.serviceIds = new String[size];
+        this.policies = new AggregationPolicy[size];
+        this.failures = new Throwable[size];
+        this.suppressedCounts = new long[size];
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.out = out;
+        this.drainer = ServiceExecutors.daemonThreads("failure-sink").newThread(this::drainLoop);
+        drainer.start();
+    }
+
+    // Shared sink on stderr: 1024 slots, one event per service per second.
+    public static FailureSink stderr() {
+        return Stderr.SINK;
+    }
+
+    public void record(String serviceId, AggregationPolicy policy, Throwable failure) {
+        Sampler sampler = samplers.get(serviceId); // avoid computeIfAbsent's bin lock on the hot path
+        if (sampler == null) {
+            sampler = samplers.computeIfAbsent(serviceId, id -> new Sampler());
+        }
+        if (!sampler.tryEmit(intervalNanos)) {
+            sampler.suppressed.increment();
+            suppressed.increment();
+            return;
+        }
+
+        long pos;
+        int slot;
+        while (true) {
+            pos = tail.get();
+            slot = (int) pos & mask;
+            long diff = sequences.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                dropped.increment(); // ring full: the drainer has not freed this slot yet
+                return;
+            }
+            // diff > 0: another producer claimed pos since we read tail; retry with the new tail
+        }
+
+        serviceIds[slot] = serviceId;
+        policies[slot] = policy;
+        failures[slot] = failure;
+        suppressedCounts[slot] = sampler.suppressed.sumThenReset();
+        sequences.set(slot, pos + 1); // publish
+        LockSupport.unpark(drainer);
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long suppressed() {
+        return suppressed.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    // Waits (up to timeoutMs) until every queued event has been written; for tests and shutdown.
+    public boolean awaitDrained(long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (head != tail.get()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(100_000);
+        }
+        return true;
+    }
+
+    // Stops the drain thread once the events already queued are written.
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(drainer);
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            long pos = head;
+            int slot = (int) pos & mask;
+            if (sequences.get(slot) != pos + 1) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+            String serviceId = serviceIds[slot];
+            AggregationPolicy policy = policies[slot];
+            Throwable failure = failures[slot];
+            long suppressedBefore = suppressedCounts[slot];
+            failures[slot] = null; // do not pin the exception until the slot is reused
+            sequences.set(slot, pos + mask + 1); // free the slot for the producer one lap ahead
+
+            line.setLength(0);
+            format(line, serviceId, policy, failure, suppressedBefore);
+            try {
+                out.append(line);
+                if (out instanceof PrintStream) {
+                    ((PrintStream) out).flush();
+                }
+                written.increment();
+            } catch (IOException | RuntimeException e) {
+                dropped.increment(); // the sink must outlive a broken output
+            }
+            head = pos + 1;
+        }
+    }
+
+    static void format(StringBuilder line, String serviceId, AggregationPolicy policy, Throwable failure,
+            long suppressedBefore) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        line.append('[').append(policy).append("] Service failed: ").append(serviceId).append(": ")
+                .append(cause.getClass().getSimpleName()).append(": ").append(cause.getMessage());
+        if (suppressedBefore > 0) {
+            line.append(" (+").append(suppressedBefore).append(" suppressed)");
+        }
+        line.append('\n');
+    }
+
+    private static final class Sampler {
+        final AtomicLong lastEmitted = new AtomicLong(Long.MIN_VALUE);
+        final LongAdder suppressed = new LongAdder();
+
+        boolean tryEmit(long intervalNanos) {
+            if (intervalNanos == 0) {
+                return true;
+            }
+            long now = System.nanoTime();
+            long last = lastEmitted.get();
+            return (last == Long.MIN_VALUE || now - last >= intervalNanos) && lastEmitted.compareAndSet(last, now);
+        }
+    }
+
+    private static final class Stderr {
+        static final FailureSink SINK = new FailureSink(1024, 1_000, System.err);
+    }
+}
@@ -0,0 +1,163 @@
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+//GraphExecution.java: one run of a ServiceGraph. Every node counts down its unresolved
+// dependencies and is started by whichever completion brings the count to zero, so each
+// branch runs as far ahead as its own inputs allow. Each node settles exactly once - answered,
+// dropped or pruned - guarded by a CAS on its state; the run completes when all have settled,
+// or fails on the first FAIL_FAST failure.
+
+final class GraphExecution {
+
+    private static final int WAITING = 0;
+    private static final int RUNNING = 1;
+    private static final int SETTLED = 2;
+
+    private final List<ServiceGraph.Node> nodes;
+    private final BiFunction<ServiceGraph.Node, String, CompletableFuture<String>> call;
+    private final BiConsumer<ServiceGraph.Node, Throwable> absorbed;
+
+    private final AtomicIntegerArray unresolved;
+    private final AtomicIntegerArray state;
+    private final AtomicReferenceArray<String> outputs;
+    private final AtomicReferenceArray<CompletableFuture<String>> running;
+    private final AtomicInteger unsettled;
+    private final CompletableFuture<Map<String, String>> result = new CompletableFuture<>();
+
+    GraphExecution(List<ServiceGraph.Node> nodes,
+            BiFunction<ServiceGraph.Node, String, CompletableFuture<String>> call,
+            BiConsumer<ServiceGraph.Node, Throwable> absorbed) {
+        this.nodes = nodes;
+        this.call = call;
+        this.absorbed = absorbed;
+        this.unresolved = new AtomicIntegerArray(nodes.size());
+        this.state = new AtomicIntegerArray(nodes.size());
+        this.outputs = new AtomicReferenceArray<>(nodes.size());
+        this.running = new AtomicReferenceArray<>(nodes.size());
+        this.unsettled = new AtomicInteger(nodes.size());
+        for (ServiceGraph.Node node : nodes) {
+            unresolved.set(node.index, node.dependencies.size());
+        }
+    }
+
+    // Completes with the output of every node that answered (or fell back), in declaration order.
+    CompletableFuture<Map<String, String>> start() {
+        result.whenComplete((r, ex) -> {
+            if (ex != null) {
+                cancelRunning(); // failed, or cancelled by the caller
+            }
+        });
+        if (nodes.isEmpty()) {
+            result.complete(Map.of());
+            return result;
+        }
+        for (ServiceGraph.Node node : nodes) {
+            if (node.dependencies.isEmpty()) {
+                launch(node);
+            }
+        }
+        return result;
+    }
+
+    private void launch(ServiceGraph.Node node) {
+        if (result.isDone() || !state.compareAndSet(node.index, WAITING, RUNNING)) {
+            return; // aborted, or pruned meanwhile
+        }
+        CompletableFuture<String> future;
+        try {
+            Map<String, String> inputs = new HashMap<>();
+            for (ServiceGraph.Node upstream : node.dependencies) {
+                inputs.put(upstream.name, outputs.get(upstream.index));
+            }
+            future = call.apply(node, node.input.apply(inputs));
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        running.set(node.index, future);
+        if (result.isDone()) {
+            future.cancel(true); // lost a race with an abort
+        }
+        future.whenComplete((output, ex) -> {
+            running.set(node.index, null);
+            if (result.isDone()) {
+                return; // cancelled by the abort; nothing left to report
+            }
+            if (ex == null) {
+                succeed(node, output);
+            } else {
+                fail(node, ex);
+            }
+        });
+    }
+
+    private void fail(ServiceGraph.Node node, Throwable ex) {
+        switch (node.policy) {
+        case FAIL_SOFT:
+            absorbed.accept(node, ex);
+            succeed(node, node.fallback);
+            break;
+        case FAIL_PARTIAL:
+            absorbed.accept(node, ex);
+            state.set(node.index, SETTLED);
+            node.dependents.forEach(this::prune);
+            settle();
+            break;
+        default:
+            result.completeExceptionally(unwrap(ex));
+        }
+    }
+
+    private void succeed(ServiceGraph.Node node, String output) {
+        outputs.set(node.index, output);
+        state.set(node.index, SETTLED);
+        for (ServiceGraph.Node dependent : node.dependents) {
+            if (unresolved.decrementAndGet(dependent.index) == 0) {
+                launch(dependent);
+            }
+        }
+        settle();
+    }
+
+    // A pruned node never runs; neither does anything downstream of it.
+    private void prune(ServiceGraph.Node node) {
+        if (state.compareAndSet(node.index, WAITING, SETTLED)) {
+            node.dependents.forEach(this::prune);
+            settle();
+        }
+    }
+
+    private void settle() {
+        if (unsettled.decrementAndGet() == 0) {
+            Map<String, String> answered = new LinkedHashMap<>();
+            for (ServiceGraph.Node node : nodes) {
+                String output = outputs.get(node.index);
+                if (output != null) {
+                    answered.put(node.name, output);
+                }
+            }
+            result.complete(answered);
+        }
+    }
+
+    private void cancelRunning() {
+        for (int i = 0; i < running.length(); i++) {
+            CompletableFuture<String> future = running.get(i);
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+//HashedWheelTimer.java: TimeoutScheduler for very high fan-out. Time is cut into ticks and
+// timeouts are hashed into a ring of wheelSize buckets by the tick they expire in (with a
+// round count when that is more than one turn away). Scheduling is a queue offer and
+// cancelling a CAS, both O(1) whatever the number pending; the single worker thread moves
+// new timeouts into their buckets, unlinks cancelled ones and expires one bucket per tick.
+// A timeout fires up to one tick late, never early. Expired futures are failed on
+// callbackExecutor so their dependents (the aggregation) never stall the wheel.
+
+public final class HashedWheelTimer implements TimeoutScheduler, AutoCloseable {
+
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    // Caps the work per tick so a burst of new timeouts cannot delay expiry for long.
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor callbackExecutor;
+    private final long startNanos;
+    private final Thread worker;
+
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private volatile boolean closed;
+
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+    public HashedWheelTimer(long tick, TimeUnit unit, int wheelSize, Executor callbackExecutor) {
+        if (tick <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tick and wheelSize must be > 0");
+        }
+        this.tickNanos = unit.toNanos(tick);
+        int size = Integer.highestOneBit(wheelSize - 1) << 1; // next power of two
+        this.wheel = new Bucket[Math.max(1, size)];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.callbackExecutor = callbackExecutor;
+        this.startNanos = System.nanoTime();
+        this.worker = ServiceExecutors.daemonThreads("timeout-wheel").newThread(this::run);
+        worker.start();
+    }
+
+    // tickMs resolution, default wheel, expiries completed on the common pool.
+    public HashedWheelTimer(long tickMs) {
+        this(tickMs, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE, ServiceExecutors.commonPool());
+    }
+
+    @Override
+    public void timeout(CompletableFuture<?> call, long timeoutMs) {
+        if (closed) {
+            throw new IllegalStateException("HashedWheelTimer is closed");
+        }
+        if (call.isDone()) {
+            return;
+        }
+        Timeout timeout = new Timeout(call, System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        pending.incrementAndGet();
+        scheduled.offer(timeout);
+        call.whenComplete(timeout); // completes first: cancels the timeout
+    }
+
+    // Timeouts neither fired nor cancelled yet.
+    public long pending() {
+        return pending.get();
+    }
+
+    public long expired() {
+        return expired.get();
+    }
+
+    // Stops the worker; timeouts still pending never fire.
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!closed) {
+            long wakeAt = startNanos + (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = wakeAt - System.nanoTime()) > 0 && !closed) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            unlinkCancelled();
+            transferScheduled(tick);
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void unlinkCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferScheduled(long tick) {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = scheduled.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.PENDING) {
+                continue; // cancelled before it reached the wheel
+            }
+            long expiryTick = timeout.deadlineNanos / tickNanos;
+            timeout.rounds = Math.max(0, (expiryTick - tick) / wheel.length);
+            wheel[(int) (Math.max(expiryTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.rounds > 0) {
+                timeout.rounds--;
+            } else {
+                bucket.remove(timeout);
+                if (STATE.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) {
+                    pending.decrementAndGet();
+                    expired.incrementAndGet();
+                    fire(timeout.call);
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    private void fire(CompletableFuture<?> call) {
+        try {
+            callbackExecutor.execute(() -> call.completeExceptionally(new TimeoutException()));
+        } catch (RejectedExecutionException e) {
+            call.completeExceptionally(new TimeoutException());
+        }
+    }
+
+    // Doubly linked so the worker can unlink a cancelled timeout in O(1); only the worker
+    // thread touches buckets and links.
+    private static final class Bucket {
+        Timeout head;
+        Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    // Also the call's completion callback, so a timeout costs one object besides its queue
+    // node. A field updater rather than an AtomicInteger keeps a million of them small.
+    private final class Timeout implements BiConsumer<Object, Throwable> {
+        static final int PENDING = 0;
+        static final int CANCELLED = 1;
+        static final int EXPIRED = 2;
+
+        final CompletableFuture<?> call;
+        final long deadlineNanos; // relative to startNanos
+        volatile int state;
+
+        // owned by the worker thread
+        long rounds;
+        Bucket bucket;
+        Timeout prev;
+        Timeout next;
+
+        Timeout(CompletableFuture<?> call, long deadlineNanos) {
+            this.call = call;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public void accept(Object result, Throwable failure) {
+            if (STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                pending.decrementAndGet();
+                cancelled.offer(this);
+            }
+        }
+    }
+}
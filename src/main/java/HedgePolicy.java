@@ -0,0 +1,187 @@
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+//HedgePolicy.java: hedged requests for tail latency. If a call has not answered by the
+// service's observed p-th percentile latency, a duplicate goes to the same service (or a
+// replica); the first success wins and the other attempt is cancelled. Both attempts carry the
+// caller's Deadline to retrieveAsync.
+
+public final class HedgePolicy {
+
+    // Below this many samples the percentile means little, so maxDelayMs is used instead.
+    static final int MIN_SAMPLES = 20;
+    private static final int WINDOW_SIZE = 256;
+
+    private final double percentile;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private final RatioBudget budget;
+    private final Function<Microservice, Microservice> replicaFor;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder budgetDenied = new LongAdder();
+
+    public HedgePolicy(double percentile, long minDelayMs, long maxDelayMs, RatioBudget budget,
+            Function<Microservice, Microservice> replicaFor, ScheduledExecutorService scheduler) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile must be in (0, 1]");
+        }
+        if (minDelayMs < 0 || maxDelayMs < minDelayMs) {
+            throw new IllegalArgumentException("need 0 <= minDelayMs <= maxDelayMs");
+        }
+        this.percentile = percentile;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.budget = budget;
+        this.replicaFor = replicaFor;
+        this.scheduler = scheduler;
+    }
+
+    // Hedges to the same service, at most 10% extra calls (bursts of up to 10).
+    public HedgePolicy(double percentile, long minDelayMs, long maxDelayMs) {
+        this(percentile, minDelayMs, maxDelayMs, new RatioBudget(0.1, 10), Function.identity(),
+                ServiceExecutors.scheduler());
+    }
+
+    public CompletableFuture<String> retrieve(Microservice client, String message) {
+        return retrieve(client, message, Deadline.none());
+    }
+
+    public CompletableFuture<String> retrieve(Microservice client, String message, Deadline deadline) {
+        budget.recordRequest();
+        HedgedCall call = new HedgedCall(client, message, deadline);
+        call.start();
+        return call.result;
+    }
+
+    long hedgeDelayMs(String serviceId) {
+        LatencyWindow window = latencies.get(serviceId);
+        if (window == null || window.count() < MIN_SAMPLES) {
+            return maxDelayMs;
+        }
+        long observedMs = TimeUnit.NANOSECONDS.toMillis(window.percentileNanos(percentile));
+        return Math.max(minDelayMs, Math.min(maxDelayMs, observedMs));
+    }
+
+    public long hedgesSent() {
+        return hedgesSent.sum();
+    }
+
+    public long hedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    public long budgetDenied() {
+        return budgetDenied.sum();
+    }
+
+    private void recordLatency(String serviceId, long nanos) {
+        latencies.computeIfAbsent(serviceId, id -> new LatencyWindow(WINDOW_SIZE)).record(nanos);
+    }
+
+    private final class HedgedCall {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final Microservice client;
+        final String message;
+        final Deadline deadline;
+
+        // Attempts that may still answer. 0 means all launched attempts failed, after which
+        // the pending hedge must not be launched any more.
+        final AtomicInteger running = new AtomicInteger(1);
+        volatile CompletableFuture<String> primary;
+        volatile CompletableFuture<String> hedge;
+        volatile ScheduledFuture<?> timer;
+        volatile Throwable lastFailure;
+
+        HedgedCall(Microservice client, String message, Deadline deadline) {
+            this.client = client;
+            this.message = message;
+            this.deadline = deadline;
+        }
+
+        void start() {
+            primary = attempt(client, false);
+            if (result.isDone()) {
+                return;
+            }
+            timer = scheduler.schedule(this::launchHedge, hedgeDelayMs(client.getServiceId()),
+                    TimeUnit.MILLISECONDS);
+            // Winner found, all failed, or the caller cancelled / timed out: stop the rest.
+            result.whenComplete((r, ex) -> {
+                timer.cancel(false);
+                cancel(primary);
+                cancel(hedge);
+            });
+        }
+
+        void launchHedge() {
+            int current;
+            do {
+                current = running.get();
+                if (current == 0 || result.isDone()) {
+                    return;
+                }
+            } while (!running.compareAndSet(current, current + 1));
+
+            if (!budget.tryAcquire()) {
+                budgetDenied.increment();
+                onFailure(null);
+                return;
+            }
+            hedgesSent.increment();
+            hedge = attempt(replicaFor.apply(client), true);
+            if (result.isDone()) {
+                cancel(hedge);
+            }
+        }
+
+        CompletableFuture<String> attempt(Microservice target, boolean isHedge) {
+            long start = System.nanoTime();
+            CompletableFuture<String> attempt = target.retrieveAsync(message, deadline);
+            attempt.whenComplete((r, ex) -> {
+                // Every attempt counts, not just winners: a cancelled loser or a timed-out call
+                // took at least this long (a censored sample). Recording only winners would keep
+                // the fast tail alone and pull the hedge delay ever lower.
+                recordLatency(target.getServiceId(), System.nanoTime() - start);
+                if (ex == null) {
+                    // counted before completing so callers that observe the result also see the win
+                    if (isHedge) {
+                        hedgeWins.increment();
+                    }
+                    if (!result.complete(r) && isHedge) {
+                        hedgeWins.decrement();
+                    }
+                } else {
+                    onFailure(ex);
+                }
+            });
+            return attempt;
+        }
+
+        // ex == null releases a hedge slot that was reserved but never used.
+        void onFailure(Throwable ex) {
+            if (ex != null) {
+                lastFailure = ex;
+            }
+            if (running.decrementAndGet() == 0) {
+                result.completeExceptionally(lastFailure);
+            }
+        }
+
+        private void cancel(CompletableFuture<String> attempt) {
+            if (attempt != null) {
+                attempt.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//LatencyDistribution.java: latency models for SimulatedMicroservice, in microseconds.
+// sample() gets the call's index and a random source seeded for that call, so a seeded
+// simulation replays the same draws per call index. Which caller gets which index still
+// depends on the thread interleaving.
+
+public interface LatencyDistribution {
+
+    long sampleMicros(long callIndex, SplittableRandom random);
+
+    static LatencyDistribution fixed(double ms) {
+        long micros = toMicros(ms);
+        return (n, random) -> micros;
+    }
+
+    static LatencyDistribution uniform(double minMs, double maxMs) {
+        if (minMs < 0 || maxMs < minMs) {
+            throw new IllegalArgumentException("need 0 <= minMs <= maxMs");
+        }
+        return (n, random) -> toMicros(minMs + (maxMs - minMs) * random.nextDouble());
+    }
+
+    // Log-normal with the given median; sigma is the spread of ln(latency) (~0.5 is a mild
+    // tail, 1.5 a heavy one).
+    static LatencyDistribution logNormal(double medianMs, double sigma) {
+        if (medianMs <= 0 || sigma < 0) {
+            throw new IllegalArgumentException("need medianMs > 0 and sigma >= 0");
+        }
+        double mu = Math.log(medianMs);
+        return (n, random) -> toMicros(Math.exp(mu + sigma * gaussian(random)));
+    }
+
+    // Pareto: never below minMs, tail index alpha (smaller is heavier; <= 2 has infinite variance).
+    static LatencyDistribution pareto(double minMs, double alpha) {
+        if (minMs <= 0 || alpha <= 0) {
+            throw new IllegalArgumentException("need minMs > 0 and alpha > 0");
+        }
+        return (n, random) -> toMicros(minMs / Math.pow(1 - random.nextDouble(), 1 / alpha));
+    }
+
+    // Mostly `fast`, `slow` with probability slowProbability (a cache miss, a GC pause, ...).
+    static LatencyDistribution bimodal(LatencyDistribution fast, LatencyDistribution slow, double slowProbability) {
+        if (slowProbability < 0 || slowProbability > 1) {
+            throw new IllegalArgumentException("slowProbability must be in [0, 1]");
+        }
+        return (n, random) -> random.nextDouble() < slowProbability
+                ? slow.sampleMicros(n, random)
+                : fast.sampleMicros(n, random);
+    }
+
+    // Replays recorded latencies in order, wrapping around at the end.
+    static LatencyDistribution trace(double... latenciesMs) {
+        if (latenciesMs.length == 0) {
+            throw new IllegalArgumentException("trace is empty");
+        }
+        long[] micros = new long[latenciesMs.length];
+        for (int i = 0; i < micros.length; i++) {
+            micros[i] = toMicros(latenciesMs[i]);
+        }
+        return (n, random) -> micros[(int) Math.floorMod(n, (long) micros.length)];
+    }
+
+    // One latency in milliseconds per line; blank lines and lines starting with # are skipped.
+    static LatencyDistribution trace(Path file) throws IOException {
+        List<String> lines;
+        try (Stream<String> all = Files.lines(file)) {
+            lines = all.map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .collect(Collectors.toList());
+        }
+        double[] latenciesMs = new double[lines.size()];
+        for (int i = 0; i < latenciesMs.length; i++) {
+            try {
+                latenciesMs[i] = Double.parseDouble(lines.get(i));
+            } catch (NumberFormatException e) {
+                throw new IOException(file + ": not a latency in ms: " + lines.get(i), e);
+            }
+        }
+        return trace(latenciesMs);
+    }
+
+    private static long toMicros(double ms) {
+        return (long) Math.max(0, ms * 1_000); // saturates at Long.MAX_VALUE for huge tails
+    }
+
+    // Box-Muller; SplittableRandom has no nextGaussian before Java 17.
+    private static double gaussian(SplittableRandom random) {
+        double u1 = 1 - random.nextDouble(); // (0, 1], keeps log finite
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+}
@@ -0,0 +1,45 @@
+//LatencyEstimate.java: immutable EWMA mean/variance of one service's latency.
+// A new instance is CAS'd in on every completion (see AdaptiveTimeouts), so readers always
+// see a consistent mean/variance pair without locking.
+
+public final class LatencyEstimate {
+
+    static final LatencyEstimate EMPTY = new LatencyEstimate(0, 0, 0);
+
+    private final double meanMs;
+    private final double varianceMs2;
+    private final long samples;
+
+    private LatencyEstimate(double meanMs, double varianceMs2, long samples) {
+        this.meanMs = meanMs;
+        this.varianceMs2 = varianceMs2;
+        this.samples = samples;
+    }
+
+    // Exponentially weighted update; alpha is the weight of the new sample.
+    LatencyEstimate update(double sampleMs, double alpha) {
+        if (samples == 0) {
+            return new LatencyEstimate(sampleMs, 0, 1);
+        }
+        double diff = sampleMs - meanMs;
+        double increment = alpha * diff;
+        return new LatencyEstimate(meanMs + increment, (1 - alpha) * (varianceMs2 + diff * increment), samples + 1);
+    }
+
+    public double meanMs() {
+        return meanMs;
+    }
+
+    public double stdDevMs() {
+        return Math.sqrt(varianceMs2);
+    }
+
+    public long samples() {
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mean=%.1fms stddev=%.1fms n=%d", meanMs, stdDevMs(), samples);
+    }
+}
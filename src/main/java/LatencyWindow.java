@@ -0,0 +1,63 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//LatencyWindow.java: the last N latencies of one service, recorded lock-free.
+
+final class LatencyWindow {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final int refreshEvery;
+
+    // Sorting the window on every query would cost O(n log n) per call, so the last answer
+    // is reused until refreshEvery new samples have arrived.
+    private volatile Cached cached = new Cached(Double.NaN, -1, 0);
+
+    LatencyWindow(int capacity) {
+        this.samples = new AtomicLongArray(capacity);
+        this.refreshEvery = Math.max(1, capacity / 8);
+    }
+
+    void record(long latencyNanos) {
+        long slot = recorded.getAndIncrement();
+        samples.set((int) (slot % samples.length()), latencyNanos);
+    }
+
+    long count() {
+        return recorded.get();
+    }
+
+    // p in (0, 1]; 0 when nothing has been recorded yet.
+    long percentileNanos(double p) {
+        long count = recorded.get();
+        Cached c = cached;
+        if (c.p == p && count - c.atCount < refreshEvery) {
+            return c.value;
+        }
+        int size = (int) Math.min(count, samples.length());
+        if (size == 0) {
+            return 0;
+        }
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        long value = copy[(int) Math.min(size - 1, Math.max(0, Math.ceil(p * size) - 1))];
+        cached = new Cached(p, count, value);
+        return value;
+    }
+
+    private static final class Cached {
+        final double p;
+        final long atCount;
+        final long value;
+
+        Cached(double p, long atCount, long value) {
+            this.p = p;
+            this.atCount = atCount;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//LogLinearHistogram.java: lock-free latency histogram over the whole positive long range.
+// Each power of two is split into 8 linear sub-buckets, so any recorded value lands in a
+// bucket at most 12.5% wide relative to its lower bound. record() is one index computation
+// and one atomic add, and never allocates.
+
+public final class LogLinearHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+
+    // Negative values are recorded as 0.
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.getAndIncrement(indexOf(v));
+        sum.add(v);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    // Number of recorded values <= bound. Exact only when bound is a bucket upper bound
+    // (upperBound(indexOf(x))); otherwise values in the bucket straddling bound are left out.
+    public long countAtOrBelow(long bound) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS && upperBound(i) <= bound; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    // p in (0, 1]; the upper bound of the bucket holding the p-th value, 0 when empty.
+    public long valueAtPercentile(double p) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    static int indexOf(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        int sub = (int) (v >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << shift;
+    }
+
+    static long upperBound(int index) {
+        if (index == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return lowerBound(index + 1) - 1;
+    }
+}
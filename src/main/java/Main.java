@@ -1,27 +1,420 @@
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//Main.java: load-test driver. Runs one aggregation policy against `fanout` simulated services
+// at a fixed arrival rate and reports throughput, latency percentiles, error and timeout rates,
+// GC and allocation. Arrivals are open-loop: aggregation i is due at start + i / rate whether
+// or not earlier ones have finished, and its latency is measured from that due time, so a
+// stall shows up in the percentiles instead of silently lowering the offered load
+// (coordinated omission). `concurrency` caps the aggregations in flight; arrivals beyond it
+// are shed and counted.
+//
+//   java Main --policy=fail-soft --fanout=16 --rate=2000 --duration=30 \
+//        --latency=lognormal:5:0.5 --failure=0.01 --hang=0.001 --format=json
+//
+// Options (defaults in brackets):
+//   --policy       fail-fast | fail-partial | fail-soft | completion-order | quorum [fail-fast]
+//   --fanout       services called per aggregation [8]
+//   --concurrency  max aggregations in flight [1000]
+//   --rate         aggregations started per second [500]
+//   --duration     measured seconds [10]
+//   --warmup       seconds run before measuring [2]
+//   --latency      fixed:ms | uniform:min:max | lognormal:median:sigma | pareto:min:alpha
+//                  | trace:file [lognormal:5:0.5]
+//   --failure      per-call failure probability [0]
+//   --hang         per-call probability of never answering [0]
+//   --deadline     per-aggregation deadline in ms, 0 for none [0]
+//   --seed         simulation seed [1]
+//   --format       text | csv | json [text]
 
-//Main.java: creates services, calls processor methods, prints results.
 public class Main {
 
-    public static void main(String[] args) {
-        // List<Microservice> microservices = Arrays.asList(
-        // new Microservice("svc-a"),
-        // new Microservice("svc-b"),
-        // new Microservice("svc-c"));
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = parse(args);
+        Report report = new LoadTest(options).run();
+        String format = options.getOrDefault("format", "text");
+        switch (format) {
+        case "text":
+            System.out.print(report.toText());
+            break;
+        case "csv":
+            System.out.print(report.toCsv());
+            break;
+        case "json":
+            System.out.println(report.toJson());
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    static LatencyDistribution latency(String spec) throws IOException {
+        String[] parts = spec.split(":", 2);
+        String[] params = parts.length > 1 ? parts[1].split(":") : new String[0];
+        switch (parts[0]) {
+        case "fixed":
+            return LatencyDistribution.fixed(Double.parseDouble(params[0]));
+        case "uniform":
+            return LatencyDistribution.uniform(Double.parseDouble(params[0]), Double.parseDouble(params[1]));
+        case "lognormal":
+            return LatencyDistribution.logNormal(Double.parseDouble(params[0]), Double.parseDouble(params[1]));
+        case "pareto":
+            return LatencyDistribution.pareto(Double.parseDouble(params[0]), Double.parseDouble(params[1]));
+        case "trace":
+            return LatencyDistribution.trace(Path.of(parts[1]));
+        default:
+            throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+        }
+    }
+
+    static final class LoadTest {
+        private final Map<String, String> options;
+        private final String policyName;
+        private final AggregationPolicy policy;
+        private final int fanout;
+        private final int concurrency;
+        private final double rate;
+        private final long durationNanos;
+        private final long warmupNanos;
+        private final long deadlineMs;
+
+        private final List<Microservice> services = new ArrayList<>();
+        private final List<String> messages;
+        private final ServiceMetrics metrics = new ServiceMetrics();
+        private final AsyncProcessor processor;
+
+        private final LogLinearHistogram latencyMicros = new LogLinearHistogram();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder shed = new LongAdder();
+
+        LoadTest(Map<String, String> options) throws IOException {
+            this.options = options;
+            this.policyName = options.getOrDefault("policy", "fail-fast");
+            this.policy = policy(policyName);
+            this.fanout = Integer.parseInt(options.getOrDefault("fanout", "8"));
+            this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+            this.rate = Double.parseDouble(options.getOrDefault("rate", "500"));
+            this.durationNanos = TimeUnit.MILLISECONDS.toNanos(
+                    (long) (Double.parseDouble(options.getOrDefault("duration", "10")) * 1000));
+            this.warmupNanos = TimeUnit.MILLISECONDS.toNanos(
+                    (long) (Double.parseDouble(options.getOrDefault("warmup", "2")) * 1000));
+            this.deadlineMs = Long.parseLong(options.getOrDefault("deadline", "0"));
+            if (fanout <= 0 || concurrency <= 0 || rate <= 0) {
+                throw new IllegalArgumentException("fanout, concurrency and rate must be > 0");
+            }
+
+            LatencyDistribution latency = latency(options.getOrDefault("latency", "lognormal:5:0.5"));
+            double failure = Double.parseDouble(options.getOrDefault("failure", "0"));
+            double hang = Double.parseDouble(options.getOrDefault("hang", "0"));
+            long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+            for (int i = 0; i < fanout; i++) {
+                services.add(new SimulatedMicroservice("svc-" + i, seed + i, latency)
+                        .withFailureProbability(failure)
+                        .withHangProbability(hang));
+            }
+            this.messages = IntStream.range(0, fanout).mapToObj(i -> "msg-" + i).collect(Collectors.toList());
+            // absorbed failures are counted through metrics; keep them off the report
+            this.processor = new AsyncProcessor()
+                    .withMetrics(metrics)
+                    .withFailureSink(new FailureSink(1024, 60_000, Writer.nullWriter()));
+        }
+
+        private static AggregationPolicy policy(String name) {
+            AggregationPolicy policy;
+            try {
+                policy = AggregationPolicy.valueOf(name.toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                policy = null;
+            }
+            if (policy == null || policy == AggregationPolicy.COMPLETION_STREAM) {
+                throw new IllegalArgumentException("Policy not supported by the load test: " + name);
+            }
+            return policy;
+        }
+
+        Report run() throws InterruptedException {
+            long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            long start = System.nanoTime();
+            long measureFrom = start + warmupNanos;
+            long end = measureFrom + durationNanos;
+
+            CallCounts callsBefore = null;
+            GcCounts gcBefore = null;
+            long allocatedBefore = 0;
+            long issued = 0;
+            for (long i = 0;; i++) {
+                long due = start + i * intervalNanos;
+                if (due - end >= 0) {
+                    break;
+                }
+                long sleep;
+                while ((sleep = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(sleep);
+                }
+                boolean measured = due - measureFrom >= 0;
+                if (measured && callsBefore == null) {
+                    callsBefore = CallCounts.of(metrics, services, policy);
+                    gcBefore = GcCounts.now();
+                    allocatedBefore = allocatedBytes();
+                }
+                if (measured) {
+                    issued++;
+                }
+                if (inFlight.incrementAndGet() > concurrency) {
+                    inFlight.decrementAndGet();
+                    if (measured) {
+                        shed.increment();
+                    }
+                    continue;
+                }
+                // recorded before inFlight drops, so the drain below never misses a completion
+                aggregate(due).whenComplete((r, ex) -> {
+                    if (measured) {
+                        record(due, ex);
+                    }
+                    inFlight.decrementAndGet();
+                });
+            }
+
+            long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (inFlight.get() > 0 && System.nanoTime() - drainUntil < 0) {
+                Thread.sleep(5);
+            }
+            // Throughput is over the arrival window; the drain would only dilute it.
+            double elapsedSeconds = Math.max(1, durationNanos) / 1e9;
+            if (callsBefore == null) { // nothing was due after the warm-up
+                callsBefore = CallCounts.of(metrics, services, policy);
+                gcBefore = GcCounts.now();
+                allocatedBefore = allocatedBytes();
+            }
+            return new Report(options, policyName, fanout, rate, issued, shed.sum(), completed.sum(),
+                    failed.sum(), timedOut.sum(), inFlight.get(), elapsedSeconds, latencyMicros,
+                    CallCounts.of(metrics, services, policy).minus(callsBefore), GcCounts.now().minus(gcBefore),
+                    allocatedBytes() - allocatedBefore);
+        }
+
+        // The deadline runs from the due time too: a late send does not buy a fresh budget.
+        private CompletableFuture<?> aggregate(long due) {
+            Deadline deadline = deadlineMs > 0 ? Deadline.after(due, deadlineMs) : Deadline.none();
+            switch (policy) {
+            case FAIL_FAST:
+                return processor.processAsyncFailFast(services, messages, deadline);
+            case FAIL_PARTIAL:
+                return processor.processAsyncFailPartial(services, messages, deadline);
+            case FAIL_SOFT:
+                return processor.processAsyncFailSoft(services, messages, "N/A", deadline);
+            case COMPLETION_ORDER:
+                return processor.processAsyncCompletionOrder(services, "msg", deadline);
+            case QUORUM:
+                return processor.processAsyncQuorum(services, messages, fanout / 2 + 1, deadline);
+            default:
+                throw new AssertionError(policy); // rejected when the options were parsed
+            }
+        }
+
+        // Latency runs from when the aggregation was due, not from when it was sent.
+        private void record(long due, Throwable ex) {
+            latencyMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due));
+            completed.increment();
+            if (ex != null) {
+                failed.increment();
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                if (cause instanceof TimeoutException || cause instanceof DeadlineExceededException) {
+                    timedOut.increment();
+                }
+            }
+        }
+
+        // Bytes allocated by the threads alive now: the driver, timer and pool threads, which
+        // outlive the run. An approximation, but a steady one between runs of the same shape.
+        private static long allocatedBytes() {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+                return 0;
+            }
+            long total = 0;
+            for (long allocated : ((com.sun.management.ThreadMXBean) threads)
+                    .getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                total += Math.max(0, allocated);
+            }
+            return total;
+        }
+    }
+
+    // Per-call outcomes across all services, from ServiceMetrics.
+    static final class CallCounts {
+        final long successes;
+        final long failures;
+        final long timeouts;
+
+        CallCounts(long successes, long failures, long timeouts) {
+            this.successes = successes;
+            this.failures = failures;
+            this.timeouts = timeouts;
+        }
+
+        static CallCounts of(ServiceMetrics metrics, List<Microservice> services, AggregationPolicy policy) {
+            long successes = 0;
+            long failures = 0;
+            long timeouts = 0;
+            for (Microservice service : services) {
+                ServiceMetrics.Series series = metrics.series(service.getServiceId(), policy);
+                if (series != null) {
+                    successes += series.successes();
+                    failures += series.failures();
+                    timeouts += series.timeouts();
+                }
+            }
+            return new CallCounts(successes, failures, timeouts);
+        }
+
+        CallCounts minus(CallCounts before) {
+            return new CallCounts(successes - before.successes, failures - before.failures,
+                    timeouts - before.timeouts);
+        }
+
+        long total() {
+            return successes + failures + timeouts;
+        }
+    }
+
+    static final class GcCounts {
+        final long collections;
+        final long pauseMs;
+
+        GcCounts(long collections, long pauseMs) {
+            this.collections = collections;
+            this.pauseMs = pauseMs;
+        }
+
+        static GcCounts now() {
+            long collections = 0;
+            long pauseMs = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                collections += Math.max(0, gc.getCollectionCount());
+                pauseMs += Math.max(0, gc.getCollectionTime());
+            }
+            return new GcCounts(collections, pauseMs);
+        }
+
+        GcCounts minus(GcCounts before) {
+            return new GcCounts(collections - before.collections, pauseMs - before.pauseMs);
+        }
+    }
+
+    static final class Report {
+        private final Map<String, Object> fields = new LinkedHashMap<>();
+
+        Report(Map<String, String> options, String policy, int fanout, double rate, long issued, long shed,
+                long completed, long failed, long timedOut, long unfinished, double seconds,
+                LogLinearHistogram latencyMicros, CallCounts calls, GcCounts gc, long allocatedBytes) {
+            fields.put("policy", policy);
+            fields.put("fanout", fanout);
+            fields.put("latency_model", options.getOrDefault("latency", "lognormal:5:0.5"));
+            fields.put("target_rate", rate);
+            fields.put("issued", issued);
+            fields.put("shed", shed);
+            fields.put("completed", completed);
+            fields.put("unfinished", unfinished);
+            fields.put("throughput_per_s", completed / seconds);
+            fields.put("error_rate", ratio(failed, completed));
+            fields.put("timeout_rate", ratio(timedOut, completed));
+            fields.put("p50_ms", latencyMicros.valueAtPercentile(0.5) / 1e3);
+            fields.put("p90_ms", latencyMicros.valueAtPercentile(0.9) / 1e3);
+            fields.put("p99_ms", latencyMicros.valueAtPercentile(0.99) / 1e3);
+            fields.put("p999_ms", latencyMicros.valueAtPercentile(0.999) / 1e3);
+            fields.put("mean_ms", latencyMicros.count() == 0 ? 0.0 : latencyMicros.sum() / 1e3 / latencyMicros.count());
+            fields.put("calls", calls.total());
+            fields.put("call_error_rate", ratio(calls.failures, calls.total()));
+            fields.put("call_timeout_rate", ratio(calls.timeouts, calls.total()));
+            fields.put("gc_count", gc.collections);
+            fields.put("gc_pause_ms", gc.pauseMs);
+            fields.put("allocated_mb", allocatedBytes / 1e6);
+            fields.put("allocated_kb_per_aggregation", completed == 0 ? 0.0 : allocatedBytes / 1e3 / completed);
+        }
+
+        private static double ratio(long part, long whole) {
+            return whole == 0 ? 0.0 : (double) part / whole;
+        }
+
+        String toText() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("policy %s, fan-out %s, latency %s, target %.0f/s%n",
+                    fields.get("policy"), fields.get("fanout"), fields.get("latency_model"), fields.get("target_rate")));
+            out.append(String.format("aggregations  issued %d, completed %d, shed %d, unfinished %d%n",
+                    fields.get("issued"), fields.get("completed"), fields.get("shed"), fields.get("unfinished")));
+            out.append(String.format("throughput    %.1f/s%n", fields.get("throughput_per_s")));
+            out.append(String.format("latency       p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, mean %.2f ms%n",
+                    fields.get("p50_ms"), fields.get("p90_ms"), fields.get("p99_ms"), fields.get("p999_ms"),
+                    fields.get("mean_ms")));
+            out.append(String.format("errors        %.3f%% of aggregations (%.3f%% timeouts)%n",
+                    100 * (double) fields.get("error_rate"), 100 * (double) fields.get("timeout_rate")));
+            out.append(String.format("calls         %d, %.3f%% failed, %.3f%% timed out%n", fields.get("calls"),
+                    100 * (double) fields.get("call_error_rate"), 100 * (double) fields.get("call_timeout_rate")));
+            out.append(String.format("gc            %d collections, %d ms%n", fields.get("gc_count"),
+                    fields.get("gc_pause_ms")));
+            out.append(String.format("allocation    %.1f MB, %.2f KB per aggregation%n", fields.get("allocated_mb"),
+                    fields.get("allocated_kb_per_aggregation")));
+            return out.toString();
+        }
+
+        String toCsv() {
+            return String.join(",", fields.keySet()) + System.lineSeparator()
+                    + fields.values().stream().map(Report::csvValue).collect(Collectors.joining(","))
+                    + System.lineSeparator();
+        }
 
-        // AsyncProcessor processor = new AsyncProcessor();
-        // String message = "hello world";
+        String toJson() {
+            return fields.entrySet().stream()
+                    .map(e -> "\"" + e.getKey() + "\":" + jsonValue(e.getValue()))
+                    .collect(Collectors.joining(",", "{", "}"));
+        }
 
-        // // Kick off all requests and wait for the combined result.
-        // String result = processor.processAsync(microservices, message).join();
+        private static String csvValue(Object value) {
+            String text = format(value);
+            return text.contains(",") || text.contains("\"") ? "\"" + text.replace("\"", "\"\"") + "\"" : text;
+        }
 
-        // System.out.println("Combined result: " + result);
+        private static String jsonValue(Object value) {
+            if (value instanceof Number) {
+                return format(value);
+            }
+            return "\"" + value.toString().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        }
 
-        // // Call the completion-order variant (fastest responses first).
-        // List<String> completionOrder = processor
-        // .processAsyncCompletionOrder(microservices, message)
-        // .join();
-        // System.out.println("Completion order: " + completionOrder);
+        private static String format(Object value) {
+            return value instanceof Double ? String.format(Locale.ROOT, "%.4f", value) : value.toString();
+        }
     }
 }
@@ -0,0 +1,160 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+//MicroBatcher.java: gathers single-input calls to the same Microservice into one
+// retrieveBatchAsync call and scatters the results back to the individual callers.
+// A batch is sent when it reaches maxBatchSize or maxLingerMs after its first input,
+// whichever comes first. Batches are per Microservice instance, so two services that
+// share an id but differ in behaviour are never mixed. Callers whose Deadline has passed by
+// the time the batch goes out are failed and left out; the batch itself carries the latest
+// deadline of the rest.
+
+public final class MicroBatcher {
+
+    private final int maxBatchSize;
+    private final long maxLingerMs;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<Microservice, Batch> open = new ConcurrentHashMap<>();
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder inputsSent = new LongAdder();
+
+    public MicroBatcher(int maxBatchSize, long maxLingerMs, ScheduledExecutorService scheduler) {
+        if (maxBatchSize <= 0 || maxLingerMs < 0) {
+            throw new IllegalArgumentException("maxBatchSize must be > 0 and maxLingerMs >= 0");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerMs = maxLingerMs;
+        this.scheduler = scheduler;
+    }
+
+    public MicroBatcher(int maxBatchSize, long maxLingerMs) {
+        this(maxBatchSize, maxLingerMs, ServiceExecutors.scheduler());
+    }
+
+    public CompletableFuture<String> retrieve(Microservice client, String input) {
+        return retrieve(client, input, Deadline.none());
+    }
+
+    public CompletableFuture<String> retrieve(Microservice client, String input, Deadline deadline) {
+        Pending pending = new Pending(input, deadline);
+        Batch[] opened = new Batch[1];
+        Batch[] filled = new Batch[1];
+        // compute holds the bin lock only for the append, never for the call itself
+        open.compute(client, (c, batch) -> {
+            if (batch == null) {
+                batch = new Batch();
+                opened[0] = batch;
+            }
+            batch.members.add(pending);
+            if (batch.members.size() >= maxBatchSize) {
+                filled[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+
+        if (filled[0] != null) {
+            ScheduledFuture<?> linger = filled[0].linger;
+            if (linger != null) {
+                linger.cancel(false);
+            }
+            send(client, filled[0]);
+        } else if (opened[0] != null) {
+            Batch batch = opened[0];
+            batch.linger = scheduler.schedule(() -> {
+                if (open.remove(client, batch)) {
+                    send(client, batch);
+                }
+            }, maxLingerMs, TimeUnit.MILLISECONDS);
+        }
+        return pending.result;
+    }
+
+    public long batchesSent() {
+        return batchesSent.sum();
+    }
+
+    public long inputsSent() {
+        return inputsSent.sum();
+    }
+
+    // Only called once the batch is out of the map, so its member list no longer changes.
+    private void send(Microservice client, Batch batch) {
+        List<Pending> members = new ArrayList<>(batch.members.size());
+        Deadline deadline = null;
+        for (Pending p : batch.members) {
+            if (p.deadline.isExpired()) {
+                p.result.completeExceptionally(
+                        new DeadlineExceededException(client.getServiceId(), "Deadline passed"));
+            } else {
+                members.add(p);
+                deadline = deadline == null ? p.deadline : deadline.orLater(p.deadline);
+            }
+        }
+        if (members.isEmpty()) {
+            return;
+        }
+        List<String> inputs = new ArrayList<>(members.size());
+        members.forEach(p -> inputs.add(p.input));
+        batchesSent.increment();
+        inputsSent.add(members.size());
+
+        CompletableFuture<List<String>> call;
+        try {
+            call = client.retrieveBatchAsync(inputs, deadline);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((results, ex) -> {
+            Throwable failure = ex;
+            if (failure == null && results.size() != members.size()) {
+                failure = new IllegalStateException(client.getServiceId() + " answered " + results.size()
+                        + " results for a batch of " + members.size());
+            }
+            for (int i = 0; i < members.size(); i++) {
+                if (failure == null) {
+                    members.get(i).result.complete(results.get(i));
+                } else {
+                    members.get(i).result.completeExceptionally(failure);
+                }
+            }
+        });
+
+        // The batch call is cancelled only once every caller in it has given up.
+        AtomicInteger abandoned = new AtomicInteger();
+        CompletableFuture<List<String>> sent = call;
+        members.forEach(p -> p.result.whenComplete((r, ex) -> {
+            if ((ex instanceof CancellationException || ex instanceof TimeoutException)
+                    && abandoned.incrementAndGet() == members.size()) {
+                sent.cancel(true);
+            }
+        }));
+    }
+
+    private static final class Batch {
+        final List<Pending> members = new ArrayList<>(); // guarded by the map's compute
+        volatile ScheduledFuture<?> linger;
+    }
+
+    private static final class Pending {
+        final String input;
+        final Deadline deadline;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+
+        Pending(String input, Deadline deadline) {
+            this.input = input;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -6,12 +6,23 @@ import java.util.stream.Collectors;
 class Microservice {
 
     private final String serviceId;
+    private final Executor executor;
 
     // Microservice.java: simulates one remote service call and returns a future
     // result.
 
     public Microservice(String serviceId) {
+        this(serviceId, ServiceExecutors.defaultIo());
+    }
+
+    // executor runs the (blocking) simulated remote call; see ServiceExecutors.
+    public Microservice(String serviceId, Executor executor) {
         this.serviceId = serviceId;
+        this.executor = executor;
+    }
+
+    public String getServiceId() {
+        return serviceId;
     }
 
     // public CompletableFuture<String> retrieveAsync(String input) {
@@ -20,18 +31,86 @@ class Microservice {
     // input.toUpperCase());
     // }
     public CompletableFuture<String> retrieveAsync(String input) {
-        return CompletableFuture.supplyAsync(() -> { // supplyAsync(...) = run work on another thread.
-            // jitter: 0..30ms to perturb scheduling
-            int delayMs = ThreadLocalRandom.current().nextInt(0, 31);
+        return submit(() -> handle(input));
+    }
+
+    // Deadline-aware call: work that cannot finish in time is shed before it is sent.
+    // Subclasses that know more (a queue depth, a server-side budget) can override it.
+    public CompletableFuture<String> retrieveAsync(String input, Deadline deadline) {
+        if (deadline.isExpired()) {
+            return CompletableFuture.failedFuture(new DeadlineExceededException(serviceId, "Deadline passed"));
+        }
+        return retrieveAsync(input);
+    }
+
+    // One remote call carrying many inputs; results come back in input order.
+    public CompletableFuture<List<String>> retrieveBatchAsync(List<String> inputs) {
+        List<String> batch = List.copyOf(inputs);
+        return submit(() -> handleBatch(batch));
+    }
+
+    // Deadline-aware batch: deadline is the latest of the batch's callers, so the call is shed
+    // only when none of them can still use an answer.
+    public CompletableFuture<List<String>> retrieveBatchAsync(List<String> inputs, Deadline deadline) {
+        if (deadline.isExpired()) {
+            return CompletableFuture.failedFuture(new DeadlineExceededException(serviceId, "Deadline passed"));
+        }
+        return retrieveBatchAsync(inputs);
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> call = new FutureTask<>(() -> {
             try {
-                TimeUnit.MILLISECONDS.sleep(delayMs);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException(e);
+                result.complete(work.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        }, null);
+
+        // Cancellation-aware: cancelling (or timing out) the returned future interrupts the
+        // call if it is running and stops it from ever starting if it is still queued.
+        result.whenComplete((r, ex) -> {
+            if (ex instanceof CancellationException || ex instanceof TimeoutException) {
+                call.cancel(true);
             }
-            return serviceId + ":" + input.toUpperCase();
-            // return serviceId + ":" + input.toUpperCase() + "(" + delayMs + "ms)";
         });
+
+        try {
+            executor.execute(call);
+        } catch (RejectedExecutionException e) {
+            // bounded pool is saturated: report it through the future like any other failure
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // The simulated remote call itself; blocks the executor thread like real I/O would.
+    protected String handle(String input) {
+        simulateRoundTrip();
+        return respond(input);
+    }
+
+    // A batch pays the round trip once, however many inputs it carries.
+    protected List<String> handleBatch(List<String> inputs) {
+        simulateRoundTrip();
+        return inputs.stream().map(this::respond).collect(Collectors.toList());
+    }
+
+    private void simulateRoundTrip() {
+        // jitter: 0..30ms to perturb scheduling
+        int delayMs = ThreadLocalRandom.current().nextInt(0, 31);
+        try {
+            TimeUnit.MILLISECONDS.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String respond(String input) {
+        return serviceId + ":" + input.toUpperCase();
+        // return serviceId + ":" + input.toUpperCase() + "(" + delayMs + "ms)";
     }
 
-}
\ No newline at end of file
+}
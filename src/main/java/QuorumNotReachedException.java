@@ -0,0 +1,21 @@
+//QuorumNotReachedException.java: too many calls failed for processAsyncQuorum to collect its quorum.
+
+public class QuorumNotReachedException extends RuntimeException {
+
+    private final int required;
+    private final int total;
+
+    public QuorumNotReachedException(int required, int total, int failed, Throwable lastFailure) {
+        super("Quorum of " + required + "/" + total + " not reachable: " + failed + " calls failed", lastFailure);
+        this.required = required;
+        this.total = total;
+    }
+
+    public int getRequired() {
+        return required;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+}
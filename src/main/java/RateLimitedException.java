@@ -0,0 +1,9 @@
+//RateLimitedException.java: a call was refused because waiting for its service's rate limit
+// would have taken longer than the caller could wait.
+
+public class RateLimitedException extends CallNotPermittedException {
+
+    public RateLimitedException(String serviceId, String reason) {
+        super(serviceId, reason);
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+//RateLimiter.java: keeps calls to one service id within its quota of permitsPerSecond, with
+// bursts of up to `burst` calls. It is a token bucket kept as a single timestamp (GCRA): the
+// time the bucket would next be empty, moved forward one interval per call with a CAS.
+// - a permit is free now: the call starts at once;
+// - otherwise the call is reserved the next free slot and started from a timer then; nothing
+//   blocks while it waits;
+// - if that slot is further away than maxWaitMs or the call's deadline, it is rejected with
+//   RateLimitedException and takes no permit.
+// A delayed call that is cancelled before it starts gives its slot back.
+
+public final class RateLimiter {
+
+    private final String serviceId;
+    private final long intervalNanos;
+    private final long burstNanos; // how far ahead of now the schedule may run without waiting
+    private final long maxWaitNanos;
+    private final ScheduledExecutorService scheduler;
+    private final LongSupplier ticker;
+
+    private final AtomicLong emptyAt; // when the bucket would be empty, ticker-based
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimiter(String serviceId, double permitsPerSecond, int burst, long maxWaitMs) {
+        this(serviceId, permitsPerSecond, burst, maxWaitMs, ServiceExecutors.scheduler(), System::nanoTime);
+    }
+
+    RateLimiter(String serviceId, double permitsPerSecond, int burst, long maxWaitMs,
+            ScheduledExecutorService scheduler, LongSupplier ticker) {
+        if (permitsPerSecond <= 0 || burst <= 0 || maxWaitMs < 0) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be > 0, maxWaitMs >= 0");
+        }
+        this.serviceId = serviceId;
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = (burst - 1) * intervalNanos;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.scheduler = scheduler;
+        this.ticker = ticker;
+        this.emptyAt = new AtomicLong(ticker.getAsLong());
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public long delayed() {
+        return delayed.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public CompletableFuture<String> execute(Supplier<CompletableFuture<String>> call, Deadline deadline) {
+        long waitNanos = reserve(Math.min(maxWaitNanos, deadline.remainingNanos()));
+        if (waitNanos < 0) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new RateLimitedException(serviceId,
+                    "Rate limit wait exceeds " + TimeUnit.NANOSECONDS.toMillis(Math.min(maxWaitNanos,
+                            deadline.remainingNanos())) + " ms"));
+        }
+        if (waitNanos == 0) {
+            return start(call);
+        }
+
+        delayed.increment();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AtomicBoolean started = new AtomicBoolean();
+        ScheduledFuture<?> timer = scheduler.schedule(() -> {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            CompletableFuture<String> future = start(call);
+            future.whenComplete((r, ex) -> {
+                if (ex == null) {
+                    result.complete(r);
+                } else {
+                    result.completeExceptionally(ex);
+                }
+            });
+            result.whenComplete((r, ex) -> {
+                if (result.isCancelled()) {
+                    future.cancel(true);
+                }
+            });
+        }, waitNanos, TimeUnit.NANOSECONDS);
+        result.whenComplete((r, ex) -> {
+            if (started.compareAndSet(false, true)) { // given up on before its slot came
+                timer.cancel(false);
+                emptyAt.addAndGet(-intervalNanos);
+            }
+        });
+        return result;
+    }
+
+    // Takes the next slot and returns how long until it, or -1 (taking nothing) if that is
+    // more than maxWaitNanos away.
+    long reserve(long maxWaitNanos) {
+        long now = ticker.getAsLong();
+        long current;
+        long waitNanos;
+        do {
+            current = emptyAt.get();
+            long base = current - now > 0 ? current : now;
+            waitNanos = Math.max(0, current - burstNanos - now);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (emptyAt.compareAndSet(current, base + intervalNanos)) {
+                return waitNanos;
+            }
+        } while (true);
+    }
+
+    private static CompletableFuture<String> start(Supplier<CompletableFuture<String>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//RateLimiterRegistry.java: one RateLimiter per service id. Quotas belong to the partner, not
+// to a processor, so every AsyncProcessor calling a service should draw on the same limiter:
+// pass one registry to all of them, or use shared(), the JVM-wide one. Services without a
+// limit of their own get the default, if there is one, and are otherwise unlimited.
+
+public final class RateLimiterRegistry {
+
+    private static final RateLimiterRegistry SHARED = new RateLimiterRegistry();
+
+    private final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+    private final double defaultPermitsPerSecond;
+    private final int defaultBurst;
+    private final long maxWaitMs;
+
+    // Every service limited to permitsPerSecond with bursts of `burst`.
+    public RateLimiterRegistry(double permitsPerSecond, int burst, long maxWaitMs) {
+        if (permitsPerSecond <= 0 || burst <= 0 || maxWaitMs < 0) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be > 0, maxWaitMs >= 0");
+        }
+        this.defaultPermitsPerSecond = permitsPerSecond;
+        this.defaultBurst = burst;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    // Only services given a limit with withLimit are limited.
+    public RateLimiterRegistry() {
+        this.defaultPermitsPerSecond = 0;
+        this.defaultBurst = 0;
+        this.maxWaitMs = Long.MAX_VALUE / 1_000_000; // bounded by each call's deadline instead
+    }
+
+    public static RateLimiterRegistry shared() {
+        return SHARED;
+    }
+
+    // Sets (or replaces) one service's quota; safe to call while processors are using the registry.
+    public RateLimiterRegistry withLimit(String serviceId, double permitsPerSecond, int burst) {
+        limiters.put(serviceId, new RateLimiter(serviceId, permitsPerSecond, burst, maxWaitMs));
+        return this;
+    }
+
+    // null when the service is unlimited.
+    public RateLimiter forService(String serviceId) {
+        RateLimiter limiter = limiters.get(serviceId); // avoid computeIfAbsent's bin lock on the hot path
+        if (limiter == null && defaultPermitsPerSecond > 0) {
+            limiter = limiters.computeIfAbsent(serviceId,
+                    id -> new RateLimiter(id, defaultPermitsPerSecond, defaultBurst, maxWaitMs));
+        }
+        return limiter;
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+//RatioBudget.java: caps extra work (hedges, retries) at a fraction of normal traffic.
+// Every normal request deposits `ratio` of a token, every extra request spends a whole one,
+// so under sustained load at most ratio * requests extra calls go out. The balance is
+// capped at maxTokens, which bounds bursts after a quiet period.
+
+public final class RatioBudget {
+
+    private static final long SCALE = 1_000; // milli-tokens, keeps the CAS on a single long
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RatioBudget(double ratio, int maxTokens) {
+        if (ratio < 0 || maxTokens < 0) {
+            throw new IllegalArgumentException("ratio and maxTokens must be >= 0");
+        }
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.maxBalance = maxTokens * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public static RatioBudget unlimited() {
+        return new RatioBudget(1.0, Integer.MAX_VALUE / (int) SCALE);
+    }
+
+    public void recordRequest() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + depositPerRequest)));
+    }
+
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    public double availableTokens() {
+        return balance.get() / (double) SCALE;
+    }
+}
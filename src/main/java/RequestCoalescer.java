@@ -0,0 +1,101 @@
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+//RequestCoalescer.java: single-flight for identical (serviceId, input) calls. Concurrent
+// callers for the same key share one in-flight call; each gets its own copy of the future,
+// so one waiter timing out or cancelling does not affect the others. The shared call is only
+// cancelled once every waiter has gone. Services sharing an id must be interchangeable.
+
+public final class RequestCoalescer {
+
+    private final Map<CallKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CompletableFuture<String> retrieve(String serviceId, String input,
+            Supplier<CompletableFuture<String>> call) {
+        CallKey key = new CallKey(serviceId, input);
+        while (true) {
+            Flight flight = new Flight();
+            Flight existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                misses.increment();
+                flight.start(key, call);
+                return flight.newWaiter();
+            }
+            if (existing.tryJoin()) {
+                hits.increment();
+                return existing.newWaiter();
+            }
+            // every waiter of that flight already left and it is being cancelled
+            inFlight.remove(key, existing);
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private final class Flight {
+        // Completed from the downstream call; never handed out directly.
+        final CompletableFuture<String> shared = new CompletableFuture<>();
+        final AtomicInteger waiters = new AtomicInteger(1);
+
+        void start(CallKey key, Supplier<CompletableFuture<String>> call) {
+            CompletableFuture<String> source;
+            try {
+                source = call.get();
+            } catch (RuntimeException e) {
+                source = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<String> downstream = source;
+            // Started outside the map so a synchronously-completing call can remove its own entry.
+            downstream.whenComplete((r, ex) -> {
+                inFlight.remove(key, this);
+                if (ex == null) {
+                    shared.complete(r);
+                } else {
+                    shared.completeExceptionally(ex);
+                }
+            });
+            shared.whenComplete((r, ex) -> {
+                if (shared.isCancelled()) {
+                    downstream.cancel(true);
+                }
+            });
+        }
+
+        boolean tryJoin() {
+            int current;
+            do {
+                current = waiters.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!waiters.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        CompletableFuture<String> newWaiter() {
+            CompletableFuture<String> waiter = shared.copy();
+            waiter.whenComplete((r, ex) -> {
+                if (!shared.isDone() && waiters.decrementAndGet() == 0) {
+                    shared.cancel(true); // last waiter left: nobody wants the answer any more
+                }
+            });
+            return waiter;
+        }
+    }
+}
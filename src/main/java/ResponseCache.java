@@ -0,0 +1,220 @@
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+//ResponseCache.java: bounded in-process cache of retrieveAsync results keyed by
+// (serviceId, input).
+// - fresh for ttlMs: answered from memory, no call made;
+// - then stale for staleWhileRevalidateMs: still answered from memory, while one background
+//   refresh replaces the entry;
+// - failures are cached for negativeTtlMs (0 turns negative caching off), but only those the
+//   cacheFailure predicate accepts: by default, ones that came back from the service;
+// - at most maxEntries; eviction is CLOCK (second chance): entries are queued in insertion
+//   order and a hit since the last sweep buys one more pass, which approximates LRU
+//   without a shared lock or list reordering on the hit path.
+
+public final class ResponseCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final long negativeTtlNanos;
+    private final Predicate<Throwable> cacheFailure;
+    private final LongSupplier ticker;
+
+    private final Map<CallKey, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger clockSize = new AtomicInteger(); // includes nodes of replaced entries
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCache(int maxEntries, long ttlMs, long staleWhileRevalidateMs, long negativeTtlMs) {
+        this(maxEntries, ttlMs, staleWhileRevalidateMs, negativeTtlMs, ResponseCache::isServiceFailure);
+    }
+
+    public ResponseCache(int maxEntries, long ttlMs, long staleWhileRevalidateMs, long negativeTtlMs,
+            Predicate<Throwable> cacheFailure) {
+        this(maxEntries, ttlMs, staleWhileRevalidateMs, negativeTtlMs, cacheFailure, System::nanoTime);
+    }
+
+    ResponseCache(int maxEntries, long ttlMs, long staleWhileRevalidateMs, long negativeTtlMs,
+            LongSupplier ticker) {
+        this(maxEntries, ttlMs, staleWhileRevalidateMs, negativeTtlMs, ResponseCache::isServiceFailure, ticker);
+    }
+
+    ResponseCache(int maxEntries, long ttlMs, long staleWhileRevalidateMs, long negativeTtlMs,
+            Predicate<Throwable> cacheFailure, LongSupplier ticker) {
+        if (maxEntries <= 0 || ttlMs < 0 || staleWhileRevalidateMs < 0 || negativeTtlMs < 0) {
+            throw new IllegalArgumentException("maxEntries must be > 0 and durations >= 0");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.staleNanos = TimeUnit.MILLISECONDS.toNanos(staleWhileRevalidateMs);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMs);
+        this.cacheFailure = cacheFailure;
+        this.ticker = ticker;
+    }
+
+    // Local refusals (open breaker, full bulkhead, rate limit), one caller's timeout or spent
+    // deadline, and cancellations say nothing about the service's answer, so replaying them to
+    // other callers would be wrong.
+    public static boolean isServiceFailure(Throwable failure) {
+        return !(failure instanceof CallNotPermittedException
+                || failure instanceof DeadlineExceededException
+                || failure instanceof TimeoutException
+                || failure instanceof CancellationException);
+    }
+
+    public CompletableFuture<String> retrieve(String serviceId, String input,
+            Supplier<CompletableFuture<String>> loader) {
+        CallKey key = new CallKey(serviceId, input);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            long age = ticker.getAsLong() - entry.writtenAt;
+            if (entry.failure != null) {
+                if (age < negativeTtlNanos) {
+                    entry.markReferenced();
+                    hits.increment();
+                    return CompletableFuture.failedFuture(entry.failure);
+                }
+            } else if (age < ttlNanos) {
+                entry.markReferenced();
+                hits.increment();
+                return CompletableFuture.completedFuture(entry.value);
+            } else if (age < ttlNanos + staleNanos) {
+                entry.markReferenced();
+                staleHits.increment();
+                if (entry.refreshing.compareAndSet(false, true)) {
+                    load(key, loader, true);
+                }
+                return CompletableFuture.completedFuture(entry.value);
+            }
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        return load(key, loader, false);
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long staleHits() {
+        return staleHits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+        clock.clear();
+        clockSize.set(0);
+    }
+
+    // A failed refresh keeps serving the stale value rather than replacing it with the failure.
+    private CompletableFuture<String> load(CallKey key, Supplier<CompletableFuture<String>> loader, boolean refresh) {
+        CompletableFuture<String> call = loader.get();
+        call.whenComplete((value, ex) -> {
+            if (ex == null) {
+                put(key, new Entry(key, value, null, ticker.getAsLong()));
+            } else if (!refresh && negativeTtlNanos > 0 && cacheFailure.test(unwrap(ex))) {
+                put(key, new Entry(key, null, ex, ticker.getAsLong()));
+            } else {
+                Entry current = entries.get(key);
+                if (current != null) {
+                    current.refreshing.set(false); // failed refresh: let the next stale hit retry
+                }
+            }
+        });
+        return call;
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    private void put(CallKey key, Entry entry) {
+        entries.put(key, entry);
+        clock.offer(entry);
+        clockSize.incrementAndGet();
+        if (overBound()) {
+            evict();
+        }
+    }
+
+    private boolean overBound() {
+        return entries.size() > maxEntries || clockSize.get() > 2 * maxEntries;
+    }
+
+    // Sweeps the clock until the cache is back under its bound. Queue nodes whose entry was
+    // replaced (refresh) or removed (expiry) meanwhile are dropped as they come up.
+    private void evict() {
+        int budget = 4 * maxEntries + 16;
+        while (overBound() && budget-- > 0) {
+            Entry candidate = clock.poll();
+            if (candidate == null) {
+                return;
+            }
+            clockSize.decrementAndGet();
+            if (entries.get(candidate.key) != candidate) {
+                continue;
+            }
+            if (candidate.referenced) {
+                candidate.referenced = false;
+                clock.offer(candidate);
+                clockSize.incrementAndGet();
+            } else if (entries.remove(candidate.key, candidate)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class Entry {
+        final CallKey key;
+        final String value;
+        final Throwable failure;
+        final long writtenAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile boolean referenced;
+
+        Entry(CallKey key, String value, Throwable failure, long writtenAt) {
+            this.key = key;
+            this.value = value;
+            this.failure = failure;
+            this.writtenAt = writtenAt;
+        }
+
+        // Read before write: hot entries would otherwise bounce their cache line between
+        // cores on every hit.
+        void markReferenced() {
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+//RetryPolicy.java: retries transient failures up to maxAttempts, waiting a random delay in
+// [0, min(maxDelayMs, baseDelayMs * 2^(retry-1))] between attempts (exponential backoff with
+// full jitter, so retrying callers spread out instead of arriving in waves).
+// - every attempt gets its own per-service timeout; the request's Deadline bounds the whole
+//   sequence, and a retry whose backoff would outlast the deadline is not made;
+// - retries spend a RatioBudget shared by all calls, so during an outage at most a fixed
+//   fraction of traffic is retried;
+// - backoff is a timer task: no thread sleeps while waiting.
+
+public final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Predicate<Throwable> retryOn;
+    private final RatioBudget budget;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder budgetDenied = new LongAdder();
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs, Predicate<Throwable> retryOn,
+            RatioBudget budget, ScheduledExecutorService scheduler) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be >= 1");
+        }
+        if (baseDelayMs < 0 || maxDelayMs < baseDelayMs) {
+            throw new IllegalArgumentException("need 0 <= baseDelayMs <= maxDelayMs");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.retryOn = retryOn;
+        this.budget = budget;
+        this.scheduler = scheduler;
+    }
+
+    // Retries isTransient failures, at most 10% extra calls (bursts of up to 10).
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this(maxAttempts, baseDelayMs, maxDelayMs, RetryPolicy::isTransient, new RatioBudget(0.1, 10),
+                ServiceExecutors.scheduler());
+    }
+
+    // Refusals made locally (open breaker, full bulkhead, spent deadline) and cancellations
+    // would only fail again or do unwanted work; everything else is worth another try.
+    public static boolean isTransient(Throwable failure) {
+        return !(failure instanceof CallNotPermittedException
+                || failure instanceof DeadlineExceededException
+                || failure instanceof CancellationException
+                || failure instanceof IllegalArgumentException);
+    }
+
+    public CompletableFuture<String> retrieve(Supplier<CompletableFuture<String>> attempt, Deadline deadline) {
+        budget.recordRequest();
+        RetriedCall call = new RetriedCall(attempt, deadline);
+        call.attempt(1);
+        return call.result;
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long budgetDenied() {
+        return budgetDenied.sum();
+    }
+
+    // Full jitter over the capped exponential delay for the given retry (1 = first retry).
+    long backoffMs(int retry) {
+        int shift = retry - 1;
+        long cap;
+        if (baseDelayMs == 0) {
+            cap = 0;
+        } else if (shift >= Long.numberOfLeadingZeros(baseDelayMs) - 1) {
+            cap = maxDelayMs; // the doubling would overflow
+        } else {
+            cap = Math.min(maxDelayMs, baseDelayMs << shift);
+        }
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private final class RetriedCall {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final Supplier<CompletableFuture<String>> supplier;
+        final Deadline deadline;
+        volatile CompletableFuture<String> current;
+        volatile ScheduledFuture<?> backoff;
+
+        RetriedCall(Supplier<CompletableFuture<String>> supplier, Deadline deadline) {
+            this.supplier = supplier;
+            this.deadline = deadline;
+            // Answered, given up, or the caller cancelled / timed out: stop the rest.
+            result.whenComplete((r, ex) -> {
+                ScheduledFuture<?> pending = backoff;
+                if (pending != null) {
+                    pending.cancel(false);
+                }
+                CompletableFuture<String> running = current;
+                if (running != null) {
+                    running.cancel(true);
+                }
+            });
+        }
+
+        void attempt(int attemptNo) {
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<String> attempt;
+            try {
+                attempt = supplier.get();
+            } catch (RuntimeException e) {
+                attempt = CompletableFuture.failedFuture(e);
+            }
+            current = attempt;
+            if (result.isDone()) {
+                attempt.cancel(true);
+                return;
+            }
+            attempt.whenComplete((r, ex) -> {
+                if (ex == null) {
+                    result.complete(r);
+                } else {
+                    onFailure(attemptNo, ex);
+                }
+            });
+        }
+
+        void onFailure(int attemptNo, Throwable ex) {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (attemptNo >= maxAttempts || result.isDone() || !retryOn.test(cause)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            long delayMs = backoffMs(attemptNo);
+            if (deadline.remainingMs() <= delayMs) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (!budget.tryAcquire()) {
+                budgetDenied.increment();
+                result.completeExceptionally(cause);
+                return;
+            }
+            retries.increment();
+            backoff = scheduler.schedule(() -> attempt(attemptNo + 1), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//ServiceExecutors.java: executor models for blocking service calls (I/O) and result aggregation (CPU).
+
+public final class ServiceExecutors {
+
+    // Defaults for the shared I/O pool used by Microservice instances that are not
+    // given an executor. Sized for blocking calls, not for cores.
+    static final int DEFAULT_IO_THREADS = 64;
+    static final int DEFAULT_IO_QUEUE_CAPACITY = 10_000;
+
+    // -Dservice.executor=virtual switches the shared I/O pool to one virtual thread per call
+    // (Java 21+, see the java21 profile in pom.xml).
+    static final String EXECUTOR_PROPERTY = "service.executor";
+
+    private ServiceExecutors() {
+    }
+
+    // Bounded pool for blocking service calls: fixed thread count, bounded queue and an
+    // explicit rejection policy so overload surfaces as a failure instead of unbounded queueing.
+    public static ThreadPoolExecutor boundedIo(String name, int threads, int queueCapacity,
+            RejectedExecutionHandler rejectionPolicy) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                daemonThreads(name),
+                rejectionPolicy);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public static ThreadPoolExecutor boundedIo(String name, int threads, int queueCapacity) {
+        return boundedIo(name, threads, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Pool for the non-blocking aggregation stages (thenApply / join / collect).
+    public static ExecutorService cpu(String name, int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, daemonThreads(name));
+    }
+
+    // One virtual thread per task: no pool size to tune, so blocking fan-outs of 10k+ calls
+    // do not queue. Looked up reflectively so the default Java 11 build still compiles.
+    public static ExecutorService virtualThreadPerTask() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException(
+                    "Virtual threads require Java 21+, running on " + Runtime.version(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual-thread executor", e);
+        }
+    }
+
+    public static boolean virtualThreadsSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public static Executor commonPool() {
+        return ForkJoinPool.commonPool();
+    }
+
+    // Shared I/O pool for Microservice(String); created on first use.
+    // Bounded platform threads by default, virtual threads when EXECUTOR_PROPERTY=virtual.
+    public static Executor defaultIo() {
+        return DefaultIo.POOL;
+    }
+
+    // Shared timer thread for delayed actions on the call path (hedges, backoff, ...). Tasks
+    // scheduled here must only complete futures or hand work off, never block.
+    public static ScheduledExecutorService scheduler() {
+        return DefaultScheduler.SCHEDULER;
+    }
+
+    static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread t = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static final class DefaultIo {
+        static final Executor POOL = "virtual".equals(System.getProperty(EXECUTOR_PROPERTY))
+                ? virtualThreadPerTask()
+                : boundedIo("service-io", DEFAULT_IO_THREADS, DEFAULT_IO_QUEUE_CAPACITY);
+    }
+
+    private static final class DefaultScheduler {
+        static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+        private static ScheduledExecutorService createScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, daemonThreads("service-timer"));
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+//ServiceGraph.java: a declarative flow of dependent service calls, run by
+// AsyncProcessor.processAsyncGraph. Each node calls one Microservice with a message built
+// from the outputs of the nodes it depends on, and starts as soon as they have all answered.
+// A node may only depend on nodes declared before it, so every graph is acyclic by
+// construction. What a node's failure does is its policy:
+// - FAIL_FAST (default): the whole graph fails and the calls still running are cancelled;
+// - FAIL_PARTIAL: the node and everything downstream of it are dropped, the rest goes on;
+// - FAIL_SOFT: the node outputs its fallback and its dependents run with that.
+//
+//   new ServiceGraph()
+//       .node("availability", availability, in -> "nyc-lax")
+//       .node("pricing", pricing, in -> in.get("availability"), "availability")
+//       .node("seats", seats, in -> in.get("availability"), "availability")
+//       .node("quote", quote, in -> in.get("pricing") + "|" + in.get("seats"), "pricing", "seats")
+//       .onFailure("seats", AggregationPolicy.FAIL_SOFT, "no seat map");
+
+public final class ServiceGraph {
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<String, Node> byName = new HashMap<>();
+
+    // input receives the outputs of dependsOn, keyed by node name.
+    public ServiceGraph node(String name, Microservice service, Function<Map<String, String>, String> input,
+            String... dependsOn) {
+        if (byName.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate node: " + name);
+        }
+        List<Node> dependencies = new ArrayList<>();
+        for (String dependency : dependsOn) {
+            Node upstream = byName.get(dependency);
+            if (upstream == null) {
+                throw new IllegalArgumentException(name + " depends on undeclared node " + dependency);
+            }
+            dependencies.add(upstream);
+        }
+        Node node = new Node(nodes.size(), name, service, input, dependencies);
+        dependencies.forEach(upstream -> upstream.dependents.add(node));
+        nodes.add(node);
+        byName.put(name, node);
+        return this;
+    }
+
+    public ServiceGraph onFailure(String name, AggregationPolicy policy) {
+        return onFailure(name, policy, null);
+    }
+
+    // fallback is only used by FAIL_SOFT.
+    public ServiceGraph onFailure(String name, AggregationPolicy policy, String fallback) {
+        Node node = byName.get(name);
+        if (node == null) {
+            throw new IllegalArgumentException("Unknown node: " + name);
+        }
+        if (policy != AggregationPolicy.FAIL_FAST && policy != AggregationPolicy.FAIL_PARTIAL
+                && policy != AggregationPolicy.FAIL_SOFT) {
+            throw new IllegalArgumentException("Graph nodes support FAIL_FAST, FAIL_PARTIAL and FAIL_SOFT, not "
+                    + policy);
+        }
+        if (policy == AggregationPolicy.FAIL_SOFT && fallback == null) {
+            throw new IllegalArgumentException("FAIL_SOFT needs a fallback for node " + name);
+        }
+        node.policy = policy;
+        node.fallback = fallback;
+        return this;
+    }
+
+    List<Node> nodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    static final class Node {
+        final int index; // declaration order, which is also a topological order
+        final String name;
+        final Microservice service;
+        final Function<Map<String, String>, String> input;
+        final List<Node> dependencies;
+        final List<Node> dependents = new ArrayList<>();
+        AggregationPolicy policy = AggregationPolicy.FAIL_FAST;
+        String fallback;
+
+        Node(int index, String name, Microservice service, Function<Map<String, String>, String> input,
+                List<Node> dependencies) {
+            this.index = index;
+            this.name = name;
+            this.service = service;
+            this.input = input;
+            this.dependencies = dependencies;
+        }
+    }
+}
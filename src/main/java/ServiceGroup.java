@@ -0,0 +1,265 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+//ServiceGroup.java: several replicas of one service behind a single serviceId. It is a
+// Microservice, so AsyncProcessor treats it like any other (one breaker, bulkhead and metrics
+// series for the group), and each call goes to the replica the strategy picks:
+// - LEAST_OUTSTANDING: fewest calls in flight, ties broken by latency EWMA;
+// - POWER_OF_TWO_CHOICES: two random replicas, the one with the lower
+//   (in flight + 1) * latency EWMA - close to least-loaded without scanning the group;
+// - ROUND_ROBIN: in turn, blind to load; the baseline.
+// Outlier ejection takes a replica out of rotation for ejectionMs after consecutiveFailures
+// failures in a row, or when its latency EWMA exceeds latencyFactor times the group median.
+// At most half the replicas are ejected at once, and an ejected replica comes back with a
+// clean record so it is judged on fresh samples.
+
+public final class ServiceGroup extends Microservice {
+
+    public enum Strategy {
+        LEAST_OUTSTANDING, POWER_OF_TWO_CHOICES, ROUND_ROBIN
+    }
+
+    private static final double EWMA_ALPHA = 0.2;
+    private static final int MIN_SAMPLES = 10;
+
+    private final Replica[] replicas;
+    private final Strategy strategy;
+    private final LongSupplier ticker;
+    private final AtomicInteger nextTurn = new AtomicInteger();
+    private final LongAdder ejections = new LongAdder();
+
+    private int consecutiveFailures = 5;
+    private double latencyFactor = 3.0;
+    private long ejectionNanos = TimeUnit.SECONDS.toNanos(10);
+
+    public ServiceGroup(String serviceId, List<Microservice> replicas, Strategy strategy) {
+        this(serviceId, replicas, strategy, System::nanoTime);
+    }
+
+    ServiceGroup(String serviceId, List<Microservice> replicas, Strategy strategy, LongSupplier ticker) {
+        super(serviceId, Runnable::run);
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("A service group needs at least one replica");
+        }
+        this.replicas = replicas.stream().map(Replica::new).toArray(Replica[]::new);
+        this.strategy = strategy;
+        this.ticker = ticker;
+    }
+
+    // consecutiveFailures or latencyFactor <= 0 turns that kind of ejection off.
+    public ServiceGroup withOutlierEjection(int consecutiveFailures, double latencyFactor, long ejectionMs) {
+        this.consecutiveFailures = consecutiveFailures;
+        this.latencyFactor = latencyFactor;
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(ejectionMs);
+        return this;
+    }
+
+    public long ejections() {
+        return ejections.sum();
+    }
+
+    int inFlight(int replica) {
+        return replicas[replica].inFlight.get();
+    }
+
+    boolean isEjected(int replica) {
+        return replicas[replica].isEjected(ticker.getAsLong());
+    }
+
+    @Override
+    public CompletableFuture<String> retrieveAsync(String input) {
+        return route(replica -> replica.retrieveAsync(input));
+    }
+
+    @Override
+    public CompletableFuture<String> retrieveAsync(String input, Deadline deadline) {
+        return route(replica -> replica.retrieveAsync(input, deadline));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> retrieveBatchAsync(List<String> inputs) {
+        return route(replica -> replica.retrieveBatchAsync(inputs));
+    }
+
+    private <T> CompletableFuture<T> route(Function<Microservice, CompletableFuture<T>> call) {
+        Replica replica = choose();
+        replica.inFlight.incrementAndGet();
+        long start = ticker.getAsLong();
+        CompletableFuture<T> future;
+        try {
+            future = call.apply(replica.service);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((r, ex) -> {
+            replica.inFlight.decrementAndGet();
+            if (ex == null) {
+                replica.onSuccess(ticker.getAsLong() - start);
+            } else if (!(ex instanceof CancellationException)) { // a cancelled call says nothing
+                replica.onFailure(ticker.getAsLong() - start);
+            }
+            checkOutlier(replica);
+        });
+        return future;
+    }
+
+    private Replica choose() {
+        long now = ticker.getAsLong();
+        switch (strategy) {
+        case ROUND_ROBIN:
+            for (int i = 0; i < replicas.length; i++) {
+                Replica replica = replicas[Math.floorMod(nextTurn.getAndIncrement(), replicas.length)];
+                if (!replica.isEjected(now)) {
+                    return replica;
+                }
+            }
+            return replicas[Math.floorMod(nextTurn.getAndIncrement(), replicas.length)];
+        case POWER_OF_TWO_CHOICES: {
+            Replica first = pickAvailable(now, null);
+            Replica second = pickAvailable(now, first);
+            return second.score(first) < first.score(second) ? second : first;
+        }
+        default: {
+            Replica best = null;
+            for (Replica replica : replicas) {
+                if (replica.isEjected(now)) {
+                    continue;
+                }
+                if (best == null || replica.inFlight.get() < best.inFlight.get()
+                        || replica.inFlight.get() == best.inFlight.get()
+                                && replica.latency.get().meanMs() < best.latency.get().meanMs()) {
+                    best = replica;
+                }
+            }
+            return best != null ? best : replicas[ThreadLocalRandom.current().nextInt(replicas.length)];
+        }
+        }
+    }
+
+    // A random replica other than `other`, skipping ejected ones where possible.
+    private Replica pickAvailable(long now, Replica other) {
+        int n = replicas.length;
+        int start = ThreadLocalRandom.current().nextInt(n);
+        Replica fallback = null;
+        for (int i = 0; i < n; i++) {
+            Replica candidate = replicas[(start + i) % n];
+            if (candidate == other) {
+                continue;
+            }
+            if (!candidate.isEjected(now)) {
+                return candidate;
+            }
+            if (fallback == null) {
+                fallback = candidate;
+            }
+        }
+        return fallback != null ? fallback : replicas[start];
+    }
+
+    private void checkOutlier(Replica replica) {
+        long now = ticker.getAsLong();
+        if (replica.isEjected(now)) {
+            return;
+        }
+        boolean failing = consecutiveFailures > 0 && replica.consecutiveFailures.get() >= consecutiveFailures;
+        boolean slow = latencyFactor > 0 && replica.latency.get().samples() >= MIN_SAMPLES
+                && replica.latency.get().meanMs() > latencyFactor * medianLatencyMs();
+        if ((failing || slow) && ejectedCount(now) < replicas.length / 2) {
+            replica.eject(now + ejectionNanos);
+            ejections.increment();
+        }
+    }
+
+    // Median latency EWMA of the replicas with enough samples; +inf when there are none to
+    // compare with, so a lone replica is never a latency outlier.
+    private double medianLatencyMs() {
+        List<Double> means = new ArrayList<>(replicas.length);
+        for (Replica replica : replicas) {
+            LatencyEstimate estimate = replica.latency.get();
+            if (estimate.samples() >= MIN_SAMPLES) {
+                means.add(estimate.meanMs());
+            }
+        }
+        if (means.size() < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double[] sorted = means.stream().mapToDouble(Double::doubleValue).toArray();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private int ejectedCount(long now) {
+        int ejected = 0;
+        for (Replica replica : replicas) {
+            if (replica.isEjected(now)) {
+                ejected++;
+            }
+        }
+        return ejected;
+    }
+
+    private static final class Replica {
+        final Microservice service;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        final AtomicReference<LatencyEstimate> latency = new AtomicReference<>(LatencyEstimate.EMPTY);
+        volatile long ejectedUntil;
+        volatile boolean ejected;
+
+        Replica(Microservice service) {
+            this.service = service;
+        }
+
+        // A replica with no samples yet borrows the other candidate's latency (1 ms if neither
+        // has any): it is tried promptly but cannot attract calls it never answers.
+        double score(Replica other) {
+            LatencyEstimate own = latency.get();
+            LatencyEstimate theirs = other.latency.get();
+            double meanMs = own.samples() > 0 ? own.meanMs() : theirs.samples() > 0 ? theirs.meanMs() : 1;
+            return (inFlight.get() + 1) * meanMs;
+        }
+
+        boolean isEjected(long now) {
+            return ejected && now - ejectedUntil < 0;
+        }
+
+        void eject(long until) {
+            ejectedUntil = until;
+            ejected = true;
+            consecutiveFailures.set(0);
+            latency.set(LatencyEstimate.EMPTY);
+        }
+
+        void onSuccess(long nanos) {
+            consecutiveFailures.set(0);
+            record(nanos, false);
+        }
+
+        // A failure counts its time too (a replica that times out is slow as well as failing),
+        // but never below the current mean: failing fast must not make a replica look fast.
+        void onFailure(long nanos) {
+            consecutiveFailures.incrementAndGet();
+            record(nanos, true);
+        }
+
+        private void record(long nanos, boolean failed) {
+            double sampleMs = nanos / 1_000_000.0;
+            LatencyEstimate current;
+            LatencyEstimate next;
+            do {
+                current = latency.get();
+                next = current.update(failed ? Math.max(sampleMs, current.meanMs()) : sampleMs, EWMA_ALPHA);
+            } while (!latency.compareAndSet(current, next));
+        }
+    }
+}
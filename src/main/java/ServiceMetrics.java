@@ -0,0 +1,230 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//ServiceMetrics.java: per service id and aggregation policy - successes, failures, timeouts,
+// cancellations, calls in flight and a latency histogram. Counters are LongAdders (striped,
+// so concurrent recorders do not contend) and latencies go into a LogLinearHistogram; after
+// a series exists, recording is a map read plus a few atomic adds, with no allocation or lock.
+// Snapshots are rendered on demand in the Prometheus text exposition format, to a Writer,
+// a file or a small HTTP endpoint.
+
+public final class ServiceMetrics {
+
+    // Exported bucket bounds, in nanoseconds: the upper bound of the LogLinearHistogram bucket
+    // holding each of 0.5 ms, 1 ms, 2.5 ms, ... 10 s. Exporting only whole native buckets keeps
+    // every cumulative count exact; a nominal bound would cut a native bucket in two. Each
+    // exported le is at most 12.5% above its nominal value.
+    private static final long[] EXPORT_BUCKETS_NANOS = exportBuckets(
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10);
+
+    private static final AggregationPolicy[] POLICIES = AggregationPolicy.values();
+
+    private final Map<String, AtomicReferenceArray<Series>> services = new ConcurrentHashMap<>();
+
+    // Call when a call starts; pass the returned series to onComplete when it finishes.
+    public Series onStart(String serviceId, AggregationPolicy policy) {
+        Series series = series(serviceId, policy);
+        series.inFlight.increment();
+        return series;
+    }
+
+    public void onComplete(Series series, long latencyNanos, Throwable failure) {
+        series.inFlight.decrement();
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (cause == null) {
+            series.successes.increment();
+            series.latency.record(latencyNanos);
+        } else if (cause instanceof TimeoutException) {
+            series.timeouts.increment();
+        } else if (cause instanceof CancellationException) {
+            series.cancellations.increment();
+        } else {
+            series.failures.increment();
+        }
+    }
+
+    public Series series(String serviceId, AggregationPolicy policy) {
+        AtomicReferenceArray<Series> byPolicy = services.get(serviceId); // avoid computeIfAbsent's bin lock
+        if (byPolicy == null) {
+            byPolicy = services.computeIfAbsent(serviceId, id -> new AtomicReferenceArray<>(POLICIES.length));
+        }
+        Series series = byPolicy.get(policy.ordinal());
+        if (series == null) {
+            byPolicy.compareAndSet(policy.ordinal(), null, new Series());
+            series = byPolicy.get(policy.ordinal());
+        }
+        return series;
+    }
+
+    public void writePrometheus(Writer out) throws IOException {
+        Map<String, AtomicReferenceArray<Series>> sorted = new TreeMap<>(services);
+
+        writeCounterFamily(out, sorted, "service_calls_total", "Completed service calls by outcome.");
+        out.write("# HELP service_calls_in_flight Service calls started and not yet completed.\n");
+        out.write("# TYPE service_calls_in_flight gauge\n");
+        forEachSeries(sorted, (labels, s) -> sample(out, "service_calls_in_flight", labels, s.inFlight()));
+
+        out.write("# HELP service_call_latency_seconds Latency of successful service calls.\n");
+        out.write("# TYPE service_call_latency_seconds histogram\n");
+        forEachSeries(sorted, (labels, s) -> {
+            for (long nanos : EXPORT_BUCKETS_NANOS) {
+                sample(out, "service_call_latency_seconds_bucket", labels + ",le=\"" + seconds(nanos) + "\"",
+                        s.latency.countAtOrBelow(nanos));
+            }
+            sample(out, "service_call_latency_seconds_bucket", labels + ",le=\"+Inf\"", s.latency.count());
+            out.write("service_call_latency_seconds_sum{" + labels + "} "
+                    + format(s.latency.sum() / 1e9) + "\n");
+            sample(out, "service_call_latency_seconds_count", labels, s.latency.count());
+        });
+        out.flush();
+    }
+
+    public String toPrometheus() {
+        StringWriter out = new StringWriter();
+        try {
+            writePrometheus(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter does not throw
+        }
+        return out.toString();
+    }
+
+    // Written to a temporary file and moved into place, so a scraper never reads half a snapshot.
+    public void writePrometheus(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(tmp, toPrometheus(), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // Serves GET /metrics on address (e.g. new InetSocketAddress("127.0.0.1", 9464)); the
+    // caller stops the returned server.
+    public HttpServer serve(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream response = exchange.getResponseBody()) {
+                response.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private void writeCounterFamily(Writer out, Map<String, AtomicReferenceArray<Series>> sorted, String name,
+            String help) throws IOException {
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write("# TYPE " + name + " counter\n");
+        forEachSeries(sorted, (labels, s) -> {
+            sample(out, name, labels + ",outcome=\"success\"", s.successes());
+            sample(out, name, labels + ",outcome=\"failure\"", s.failures());
+            sample(out, name, labels + ",outcome=\"timeout\"", s.timeouts());
+            sample(out, name, labels + ",outcome=\"cancelled\"", s.cancellations());
+        });
+    }
+
+    private interface SeriesWriter {
+        void write(String labels, Series series) throws IOException;
+    }
+
+    private static void forEachSeries(Map<String, AtomicReferenceArray<Series>> sorted, SeriesWriter writer)
+            throws IOException {
+        for (Map.Entry<String, AtomicReferenceArray<Series>> service : sorted.entrySet()) {
+            for (AggregationPolicy policy : POLICIES) {
+                Series series = service.getValue().get(policy.ordinal());
+                if (series != null) {
+                    writer.write("service=\"" + escape(service.getKey()) + "\",policy=\""
+                            + policy.name().toLowerCase(Locale.ROOT) + "\"", series);
+                }
+            }
+        }
+    }
+
+    private static void sample(Writer out, String name, String labels, long value) throws IOException {
+        out.write(name + "{" + labels + "} " + value + "\n");
+    }
+
+    private static long[] exportBuckets(double... nominalSeconds) {
+        long[] nanos = new long[nominalSeconds.length];
+        for (int i = 0; i < nanos.length; i++) {
+            long nominal = (long) (nominalSeconds[i] * TimeUnit.SECONDS.toNanos(1));
+            nanos[i] = LogLinearHistogram.upperBound(LogLinearHistogram.indexOf(nominal));
+        }
+        return nanos;
+    }
+
+    // Exact decimal seconds, e.g. 0.002621439 rather than 2.621439E-3.
+    private static String seconds(long nanos) {
+        return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+
+    private static String format(double value) {
+        return Double.toString(value);
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    public static final class Series {
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder cancellations = new LongAdder();
+        private final LongAdder inFlight = new LongAdder();
+        private final LogLinearHistogram latency = new LogLinearHistogram();
+
+        public long successes() {
+            return successes.sum();
+        }
+
+        public long failures() {
+            return failures.sum();
+        }
+
+        public long timeouts() {
+            return timeouts.sum();
+        }
+
+        public long cancellations() {
+            return cancellations.sum();
+        }
+
+        public long inFlight() {
+            return inFlight.sum();
+        }
+
+        public LogLinearHistogram latency() {
+            return latency;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+//SimulatedMicroservice.java: configurable stand-in for a remote service. Each call draws its
+// latency from a LatencyDistribution, then fails with failureProbability, or hangs (never
+// answers) with hangProbability; a BrownoutSchedule can stretch latency and add failures
+// over time. Call n's draws come from a random source seeded by (seed, n), so a run is
+// reproducible. Nothing sleeps: answers are timer-scheduled, so 100k concurrent calls are
+// 100k queued timer tasks, not 100k threads. The timer only hands each answer to the common
+// pool, so callers' dependent stages never run on (and stall) the shared timer thread.
+
+class SimulatedMicroservice extends Microservice {
+
+    private final long seed;
+    private final LatencyDistribution latency;
+    private final ScheduledExecutorService scheduler;
+    private final Executor completer = ServiceExecutors.commonPool();
+    private final LongSupplier ticker;
+    private final long startNanos;
+
+    private double failureProbability;
+    private double hangProbability;
+    private BrownoutSchedule brownouts = new BrownoutSchedule();
+
+    private final AtomicLong calls = new AtomicLong();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder hangs = new LongAdder();
+
+    SimulatedMicroservice(String serviceId, long seed, LatencyDistribution latency) {
+        this(serviceId, seed, latency, ServiceExecutors.scheduler());
+    }
+
+    SimulatedMicroservice(String serviceId, long seed, LatencyDistribution latency,
+            ScheduledExecutorService scheduler) {
+        this(serviceId, seed, latency, scheduler, System::nanoTime);
+    }
+
+    SimulatedMicroservice(String serviceId, long seed, LatencyDistribution latency,
+            ScheduledExecutorService scheduler, LongSupplier ticker) {
+        super(serviceId, Runnable::run);
+        this.seed = seed;
+        this.latency = latency;
+        this.scheduler = scheduler;
+        this.ticker = ticker;
+        this.startNanos = ticker.getAsLong();
+    }
+
+    SimulatedMicroservice withFailureProbability(double failureProbability) {
+        this.failureProbability = probability(failureProbability);
+        return this;
+    }
+
+    SimulatedMicroservice withHangProbability(double hangProbability) {
+        this.hangProbability = probability(hangProbability);
+        return this;
+    }
+
+    SimulatedMicroservice withBrownouts(BrownoutSchedule brownouts) {
+        this.brownouts = brownouts;
+        return this;
+    }
+
+    long calls() {
+        return calls.get();
+    }
+
+    long failures() {
+        return failures.sum();
+    }
+
+    long hangs() {
+        return hangs.sum();
+    }
+
+    @Override
+    public CompletableFuture<String> retrieveAsync(String input) {
+        return simulate(() -> getServiceId() + ":" + input.toUpperCase());
+    }
+
+    // A batch is one call: one latency draw and one outcome for all of its inputs.
+    @Override
+    public CompletableFuture<List<String>> retrieveBatchAsync(List<String> inputs) {
+        return simulate(() -> inputs.stream()
+                .map(input -> getServiceId() + ":" + input.toUpperCase())
+                .collect(Collectors.toList()));
+    }
+
+    private <T> CompletableFuture<T> simulate(Supplier<T> response) {
+        long n = calls.getAndIncrement();
+        SplittableRandom random = new SplittableRandom(mix(mix(seed) + n));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(ticker.getAsLong() - startNanos);
+        double failureChance = 1 - (1 - failureProbability) * (1 - brownouts.failureProbabilityAt(elapsedMs));
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (random.nextDouble() < hangProbability) {
+            hangs.increment(); // left pending: only the caller's timeout or cancel ends it
+            return result;
+        }
+        boolean fails = random.nextDouble() < failureChance;
+        long delayMicros = (long) (latency.sampleMicros(n, random) * brownouts.latencyMultiplierAt(elapsedMs));
+
+        Runnable answer = () -> {
+            if (fails) {
+                failures.increment();
+                result.completeExceptionally(new RuntimeException(getServiceId() + " call " + n + " failed"));
+            } else {
+                result.complete(response.get());
+            }
+        };
+        if (delayMicros <= 0) {
+            answer.run();
+        } else {
+            Future<?> timer = scheduler.schedule(() -> completer.execute(answer), delayMicros,
+                    TimeUnit.MICROSECONDS);
+            // a caller that gives up frees the timer slot instead of waiting it out
+            result.whenComplete((r, ex) -> {
+                if (ex != null) {
+                    timer.cancel(false);
+                }
+            });
+        }
+        return result;
+    }
+
+    // SplitMix64 finaliser: a well-spread 64-bit hash. Seed and call index are hashed in
+    // separate rounds; seed + n would make service seed+1's call n-1 replay seed's call n.
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static double probability(double p) {
+        if (p < 0 || p > 1) {
+            throw new IllegalArgumentException("probability must be in [0, 1], was " + p);
+        }
+        return p;
+    }
+}
@@ -0,0 +1,17 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+//TimeoutScheduler.java: how AsyncProcessor bounds each call. An implementation fails the
+// future with TimeoutException if it is still pending after timeoutMs, and forgets the
+// timeout as soon as the future completes on its own.
+
+public interface TimeoutScheduler {
+
+    void timeout(CompletableFuture<?> call, long timeoutMs);
+
+    // CompletableFuture.orTimeout: one task in the JDK's shared single-thread delayer,
+    // O(log n) to insert and cancel. Fine until hundreds of thousands of calls are pending.
+    static TimeoutScheduler jdk() {
+        return (call, timeoutMs) -> call.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+}
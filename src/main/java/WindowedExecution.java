@@ -0,0 +1,170 @@
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+//WindowedExecution.java: runs N calls with at most W of them outstanding and streams each
+// result to a sink, so memory stays O(W) however large N is.
+// - ordered: results go to the sink in input order through a W-slot reassembly ring. A
+//   window slot is released when its result is emitted, not when its call completes, so a
+//   slow early call holds back at most W-1 finished results rather than N.
+// - unordered: results go to the sink as calls complete.
+// Failures follow the policy: FAIL_PARTIAL skips the result, FAIL_SOFT emits the fallback, and
+// any other policy (FAIL_FAST, COMPLETION_ORDER) stops starting calls, cancels the outstanding
+// ones and fails.
+// The sink is only ever called from the drain loop, one result at a time, on the executor.
+
+final class WindowedExecution {
+
+    private static final Object SKIPPED = new Object();
+
+    private final int total;
+    private final int window;
+    private final boolean ordered;
+    private final AggregationPolicy policy;
+    private final String fallback;
+    private final IntFunction<CompletableFuture<String>> call;
+    private final ObjIntConsumer<Throwable> absorbed;
+    private final Consumer<String> sink;
+    private final Executor executor;
+
+    private final AtomicReferenceArray<Object> reassembly; // ordered: slot i % window
+    private final Queue<Object> ready = new ConcurrentLinkedQueue<>(); // unordered
+    private final Set<CompletableFuture<String>> outstanding = ConcurrentHashMap.newKeySet(); // <= window
+    private final AtomicInteger wip = new AtomicInteger(); // serialises drain()
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+    private volatile Throwable failure;
+
+    // only touched inside drain()
+    private int launched;
+    private int emitted;
+    private long delivered;
+
+    WindowedExecution(int total, int window, boolean ordered, AggregationPolicy policy, String fallback,
+            IntFunction<CompletableFuture<String>> call, ObjIntConsumer<Throwable> absorbed,
+            Consumer<String> sink, Executor executor) {
+        this.total = total;
+        this.window = Math.max(1, Math.min(window, total));
+        this.ordered = ordered;
+        this.policy = policy;
+        this.fallback = fallback;
+        this.call = call;
+        this.absorbed = absorbed;
+        this.sink = sink;
+        this.executor = executor;
+        this.reassembly = new AtomicReferenceArray<>(ordered ? this.window : 0);
+    }
+
+    // Completes with the number of results handed to the sink.
+    CompletableFuture<Long> start() {
+        result.whenComplete((r, ex) -> {
+            if (ex != null) {
+                cancelOutstanding(); // cancelled by the caller, or a call that was still being launched
+            }
+        });
+        scheduleDrain();
+        return result;
+    }
+
+    private void launch(int index) {
+        CompletableFuture<String> future;
+        try {
+            future = call.apply(index);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<String> launchedFuture = future;
+        outstanding.add(launchedFuture);
+        future.whenComplete((r, ex) -> {
+            outstanding.remove(launchedFuture);
+            Object value;
+            if (ex == null) {
+                value = r;
+            } else if (policy != AggregationPolicy.FAIL_PARTIAL && policy != AggregationPolicy.FAIL_SOFT) {
+                if (failure == null) {
+                    failure = ex;
+                }
+                value = SKIPPED;
+            } else {
+                absorbed.accept(ex, index);
+                value = policy == AggregationPolicy.FAIL_SOFT ? fallback : SKIPPED;
+            }
+            if (ordered) {
+                reassembly.set(index % window, value);
+            } else {
+                ready.offer(value);
+            }
+            scheduleDrain();
+        });
+    }
+
+    private void scheduleDrain() {
+        if (wip.getAndIncrement() == 0) {
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                Object value;
+                while ((value = next()) != null) {
+                    emitted++;
+                    if (value != SKIPPED) {
+                        sink.accept((String) value);
+                        delivered++;
+                    }
+                }
+            } catch (RuntimeException e) {
+                failure = e; // a broken sink ends the run like a failed call
+            }
+            if (failure != null) {
+                cancelOutstanding(); // before failing, so a caller woken by the failure sees them cancelled
+                result.completeExceptionally(failure);
+                return;
+            }
+            if (emitted == total) {
+                result.complete(delivered);
+                return;
+            }
+            while (launched < total && launched - emitted < window && failure == null) {
+                launch(launched++);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private Object next() {
+        if (!ordered) {
+            return ready.poll();
+        }
+        int slot = emitted % window;
+        if (emitted >= launched) {
+            return null;
+        }
+        Object value = reassembly.get(slot);
+        if (value != null) {
+            reassembly.set(slot, null);
+        }
+        return value;
+    }
+
+    private void cancelOutstanding() {
+        outstanding.forEach(f -> f.cancel(true));
+    }
+}
@@ -0,0 +1,33 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+//WriterSink.java: streams windowed results to a Writer, separator between items, so the
+// joined output of FailFast/FailSoft never has to exist as one String. An IOException
+// fails the run (as UncheckedIOException).
+
+public final class WriterSink implements Consumer<String> {
+
+    private final Writer out;
+    private final String separator;
+    private boolean first = true; // the windowed engine calls accept from one drain at a time
+
+    public WriterSink(Writer out, String separator) {
+        this.out = out;
+        this.separator = separator;
+    }
+
+    @Override
+    public void accept(String result) {
+        try {
+            if (!first) {
+                out.write(separator);
+            }
+            first = false;
+            out.write(result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
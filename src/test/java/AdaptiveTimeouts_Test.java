@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AdaptiveTimeouts - per-service timeouts from observed latency")
+public class AdaptiveTimeouts_Test {
+
+    @Test
+    @DisplayName("Ceiling applies until enough samples are seen")
+    void ceilingBeforeWarmUp() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts(20, 500);
+        assertEquals(500, timeouts.timeoutMs("AirAlpha"));
+
+        for (int i = 0; i < 9; i++) {
+            timeouts.record("AirAlpha", TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        assertEquals(500, timeouts.timeoutMs("AirAlpha"));
+    }
+
+    @Test
+    @DisplayName("Fast, steady service gets a timeout near the floor")
+    void fastServiceGetsTightTimeout() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts(20, 500);
+        for (int i = 0; i < 50; i++) {
+            timeouts.record("AirAlpha", TimeUnit.MILLISECONDS.toNanos(5 + i % 3));
+        }
+
+        assertEquals(20, timeouts.timeoutMs("AirAlpha"));
+        LatencyEstimate estimate = timeouts.estimates().get("AirAlpha");
+        assertEquals(50, estimate.samples());
+        assertEquals(6.0, estimate.meanMs(), 1.0);
+    }
+
+    @Test
+    @DisplayName("Slow service: timeout follows mean + k * stddev, capped at the ceiling")
+    void slowServiceTimeoutTracksDistribution() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts(20, 500, 0.1, 4.0, 10);
+        for (int i = 0; i < 200; i++) {
+            timeouts.record("JetBravo", TimeUnit.MILLISECONDS.toNanos(i % 2 == 0 ? 100 : 140));
+        }
+
+        LatencyEstimate estimate = timeouts.estimates().get("JetBravo");
+        long expected = (long) Math.ceil(estimate.meanMs() + 4.0 * estimate.stdDevMs());
+        assertEquals(expected, timeouts.timeoutMs("JetBravo"));
+        assertTrue(expected > 140 && expected < 500, "timeout was " + expected);
+
+        for (int i = 0; i < 200; i++) {
+            timeouts.recordTimeout("JetBravo", 2_000);
+        }
+        assertEquals(500, timeouts.timeoutMs("JetBravo"));
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: stalled fast service is cut off at its own timeout, not 500ms")
+    void processorUsesAdaptiveTimeout() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts(50, 500);
+        AsyncProcessor processor = new AsyncProcessor().withAdaptiveTimeouts(timeouts);
+        Microservice fast = new Microservice("AirAlpha") {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return CompletableFuture.completedFuture("AirAlpha:" + input.toUpperCase());
+            }
+        };
+        for (int i = 0; i < 20; i++) {
+            processor.processAsyncFailSoft(List.of(fast), List.of("nyc-lax"), "X").join();
+        }
+        assertEquals(50, timeouts.timeoutMs("AirAlpha"));
+
+        Microservice stalled = new Microservice("AirAlpha") {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return new CompletableFuture<>();
+            }
+        };
+        long start = System.nanoTime();
+        String result = processor.processAsyncFailSoft(List.of(stalled), List.of("nyc-lax"), "QUOTE_UNAVAILABLE")
+                .join();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("QUOTE_UNAVAILABLE", result);
+        assertTrue(elapsedMs < 300, "took " + elapsedMs + "ms");
+        assertTrue(timeouts.estimates().get("AirAlpha").meanMs() > 0);
+    }
+}
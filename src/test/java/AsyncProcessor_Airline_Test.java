@@ -7,7 +7,9 @@ import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -92,6 +94,51 @@ public class AsyncProcessor_Airline_Test {
         });
     }
 
+    @Test
+    @DisplayName("FailFast: first failure short-circuits and cancels the slow siblings")
+    void failFast_shortCircuitCancelsSiblings(TestReporter reporter) throws InterruptedException {
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger interrupted = new AtomicInteger();
+        List<Microservice> services = List.of(
+                slowService("SlowAir", started, interrupted),
+                failingService("AirAlpha", "AirAlpha API down"),
+                slowService("SlowJet", started, interrupted));
+        List<String> messages = List.of("nyc-lax", "nyc-sfo", "nyc-sea");
+
+        long start = System.nanoTime();
+        CompletionException ex = assertThrows(
+                CompletionException.class,
+                () -> processor.processAsyncFailFast(services, messages).join());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        logExpectedActual(reporter, "failFast_shortCircuitCancelsSiblings", "error well before the 500ms timeout",
+                elapsedMs + "ms");
+        assertTrue(rootCause(ex).getMessage().contains("AirAlpha API down"));
+        assertTrue(elapsedMs < 250, "time-to-error was " + elapsedMs + "ms");
+        // a cancelled sibling is either interrupted mid-call or never starts at all
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (interrupted.get() < started.get() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(started.get(), interrupted.get(), "slow siblings were not interrupted");
+    }
+
+    @Test
+    @DisplayName("Microservice: cancelling a call interrupts the running work")
+    void microservice_cancelInterruptsCall() throws InterruptedException {
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger interrupted = new AtomicInteger();
+        CompletableFuture<String> call = slowService("SlowAir", started, interrupted).retrieveAsync("nyc-lax");
+
+        while (started.get() == 0) {
+            Thread.sleep(5);
+        }
+        call.cancel(true);
+
+        Thread.sleep(100);
+        assertEquals(1, interrupted.get());
+    }
+
     @Test
     @DisplayName("FailPartial: all airline quotes succeed")
     void failPartial_allSuccess(TestReporter reporter) {
@@ -254,6 +301,75 @@ public class AsyncProcessor_Airline_Test {
         }
     }
 
+    @Test
+    @DisplayName("Quorum: completes with the first 2 of 3 quotes and cancels the straggler")
+    void quorum_firstKWins(TestReporter reporter) {
+        CompletableFuture<String> straggler = new CompletableFuture<>();
+        List<Microservice> services = List.of(
+                new Microservice("AirAlpha"),
+                fixedService("StuckAir", straggler),
+                new Microservice("SkyCharlie"));
+        List<String> messages = List.of("nyc-lax", "nyc-sfo", "nyc-sea");
+
+        List<String> actual = assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> processor.processAsyncQuorum(services, messages, 2).join());
+
+        logExpectedActual(reporter, "quorum_firstKWins", "[AirAlpha:NYC-LAX, SkyCharlie:NYC-SEA] any order", actual);
+        assertEquals(2, actual.size());
+        assertTrue(actual.containsAll(List.of("AirAlpha:NYC-LAX", "SkyCharlie:NYC-SEA")));
+        assertTrue(straggler.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Quorum: tolerates N-K failures")
+    void quorum_toleratesFailures(TestReporter reporter) {
+        List<Microservice> services = List.of(
+                failingService("AirAlpha", "AirAlpha API down"),
+                new Microservice("JetBravo"),
+                new Microservice("SkyCharlie"));
+        List<String> messages = List.of("nyc-lax", "nyc-sfo", "nyc-sea");
+
+        List<String> actual = processor.processAsyncQuorum(services, messages, 2).join();
+
+        logExpectedActual(reporter, "quorum_toleratesFailures", "[JetBravo:NYC-SFO, SkyCharlie:NYC-SEA] any order",
+                actual);
+        assertTrue(actual.containsAll(List.of("JetBravo:NYC-SFO", "SkyCharlie:NYC-SEA")));
+    }
+
+    @Test
+    @DisplayName("Quorum: fails as soon as K successes are impossible, without waiting for the rest")
+    void quorum_failsWhenUnreachable(TestReporter reporter) {
+        CompletableFuture<String> hanging = new CompletableFuture<>();
+        List<Microservice> services = List.of(
+                failingService("AirAlpha", "AirAlpha API down"),
+                failingService("JetBravo", "JetBravo API down"),
+                fixedService("StuckAir", hanging));
+        List<String> messages = List.of("nyc-lax", "nyc-sfo", "nyc-sea");
+
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> processor.processAsyncQuorum(services, messages, 2).join());
+
+        logExpectedActual(reporter, "quorum_failsWhenUnreachable", "QuorumNotReachedException",
+                ex.getCause().getClass().getSimpleName() + ": " + ex.getCause().getMessage());
+        assertTrue(ex.getCause() instanceof QuorumNotReachedException);
+        assertTrue(rootCause(ex).getMessage().endsWith("API down"));
+        assertTrue(hanging.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Quorum: rejects size mismatch and out-of-range K")
+    void quorum_validatesInputs() {
+        List<Microservice> services = List.of(new Microservice("AirAlpha"), new Microservice("JetBravo"));
+
+        for (CompletableFuture<List<String>> invalid : List.of(
+                processor.processAsyncQuorum(services, List.of("nyc-lax"), 1),
+                processor.processAsyncQuorum(services, List.of("nyc-lax", "nyc-sfo"), 0),
+                processor.processAsyncQuorum(services, List.of("nyc-lax", "nyc-sfo"), 3))) {
+            CompletionException ex = assertThrows(CompletionException.class, invalid::join);
+            assertTrue(ex.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
     private Microservice failingService(String serviceId, String errorMessage) {
         return new Microservice(serviceId) {
             @Override
@@ -265,6 +381,32 @@ public class AsyncProcessor_Airline_Test {
         };
     }
 
+    // Blocks for seconds inside the real Microservice call path and counts starts and interrupts.
+    private Microservice slowService(String serviceId, AtomicInteger started, AtomicInteger interrupted) {
+        return new Microservice(serviceId) {
+            @Override
+            protected String handle(String input) {
+                started.incrementAndGet();
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                    throw new RuntimeException(e);
+                }
+                return super.handle(input);
+            }
+        };
+    }
+
+    private Microservice fixedService(String serviceId, CompletableFuture<String> response) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return response;
+            }
+        };
+    }
+
     private Microservice hangingService(String serviceId) {
         return new Microservice(serviceId) {
             @Override
@@ -274,6 +274,16 @@ public class AsyncProcessor_Test {
         assertTrue(sawDifferentOrder, "Expected at least two different completion orders across runs");
     }
 
+    @Test
+    @DisplayName("CompletionOrder - result list is mutable")
+    void completionOrder_resultIsMutable() {
+        List<String> r = processor.processAsyncCompletionOrder(List.of(new Microservice("svc-a")), "msg").join();
+
+        r.add("extra");
+        r.remove("svc-a:MSG");
+        assertEquals(List.of("extra"), r);
+    }
+
     @Test
     @DisplayName("Task C.5: FailSoft - Custom fallback values")
     void testFailSoftCustomFallback() throws ExecutionException, InterruptedException {
@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bulkhead - per-service concurrency limits")
+public class Bulkhead_Test {
+
+    @Test
+    @DisplayName("Without a wait queue, calls over the cap are rejected at once")
+    void rejectsOverCap() {
+        Bulkhead bulkhead = new Bulkhead("AirAlpha", 2, 0, 0);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+
+        bulkhead.execute(() -> first);
+        bulkhead.execute(() -> second);
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> bulkhead.execute(CompletableFuture::new).join());
+
+        assertTrue(ex.getCause() instanceof BulkheadFullException);
+        assertEquals(2, bulkhead.inFlight());
+        assertEquals(1, bulkhead.rejected());
+        first.complete("a");
+        assertEquals(1, bulkhead.inFlight());
+    }
+
+    @Test
+    @DisplayName("Queued calls start in order as permits are released")
+    void queuedCallsRunOnRelease() {
+        Bulkhead bulkhead = new Bulkhead("AirAlpha", 1, 2, 5_000);
+        CompletableFuture<String> running = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+
+        bulkhead.execute(() -> running);
+        CompletableFuture<String> queued = bulkhead.execute(() -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture("queued");
+        });
+        assertEquals(0, started.get());
+        assertEquals(1, bulkhead.waiting());
+
+        running.complete("done");
+        assertEquals("queued", queued.join());
+        assertEquals(1, started.get());
+        assertEquals(0, bulkhead.inFlight());
+        assertEquals(0, bulkhead.waiting());
+    }
+
+    @Test
+    @DisplayName("Released permits go to waiters in FIFO order, never to a newcomer")
+    void releasedPermitsGoToWaitersFirst() {
+        Bulkhead bulkhead = new Bulkhead("AirAlpha", 1, 3, 5_000);
+        List<String> started = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<String>> pending = new CopyOnWriteArrayList<>();
+        bulkhead.execute(call("a", started, pending));
+        bulkhead.execute(call("b", started, pending));
+        bulkhead.execute(call("c", started, pending));
+        pending.get(0).complete("a");
+        assertEquals(List.of("a", "b"), started);
+
+        // c is still queued: a newcomer lines up behind it instead of taking the next permit
+        bulkhead.execute(call("d", started, pending));
+        assertEquals(2, bulkhead.waiting());
+        pending.get(1).complete("b");
+        pending.get(2).complete("c");
+        assertEquals(List.of("a", "b", "c", "d"), started);
+        assertEquals(0, bulkhead.rejected());
+    }
+
+    @Test
+    @DisplayName("A waiter that gets no permit within maxWaitMs is rejected and never runs")
+    void waitTimesOut() {
+        Bulkhead bulkhead = new Bulkhead("AirAlpha", 1, 1, 50);
+        CompletableFuture<String> running = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+
+        bulkhead.execute(() -> running);
+        CompletableFuture<String> queued = bulkhead.execute(() -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture("late");
+        });
+        CompletionException full = assertThrows(CompletionException.class,
+                () -> bulkhead.execute(CompletableFuture::new).join()); // queue of one is taken
+
+        CompletionException timedOut = assertThrows(CompletionException.class, queued::join);
+        assertTrue(full.getCause() instanceof BulkheadFullException);
+        assertTrue(timedOut.getCause() instanceof BulkheadFullException);
+        running.complete("done");
+        assertEquals(0, started.get());
+        assertEquals(0, bulkhead.inFlight());
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: a saturated service is dropped by FailPartial and falls back in FailSoft")
+    void processorTreatsRejectionPerPolicy() {
+        CompletableFuture<String> stuck = new CompletableFuture<>();
+        Microservice saturated = fixedService("StuckAir", stuck);
+        Microservice healthy = fixedService("JetBravo", CompletableFuture.completedFuture("JetBravo:NYC-SEA"));
+        AsyncProcessor processor = new AsyncProcessor().withBulkheads(new BulkheadRegistry(1, 0, 0));
+        List<Microservice> services = List.of(saturated, saturated, healthy);
+        List<String> messages = List.of("nyc-lax", "nyc-sfo", "nyc-sea");
+
+        CompletableFuture<List<String>> partial = processor.processAsyncFailPartial(services, messages);
+        assertEquals("QUOTE_UNAVAILABLE QUOTE_UNAVAILABLE JetBravo:NYC-SEA",
+                processor.processAsyncFailSoft(services, messages, "QUOTE_UNAVAILABLE").join());
+        stuck.complete("StuckAir:NYC-LAX");
+        assertEquals(List.of("StuckAir:NYC-LAX", "JetBravo:NYC-SEA"), partial.join());
+    }
+
+    private Microservice fixedService(String serviceId, CompletableFuture<String> response) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return response;
+            }
+        };
+    }
+
+    private static Supplier<CompletableFuture<String>> call(String name, List<String> started,
+            List<CompletableFuture<String>> pending) {
+        return () -> {
+            started.add(name);
+            CompletableFuture<String> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        };
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CircuitBreaker - per-service breaker under AsyncProcessor")
+public class CircuitBreaker_Test {
+
+    @Test
+    @DisplayName("Opens once the failure rate reaches the threshold over minimumCalls")
+    void opensOnFailureRate() {
+        CircuitBreaker breaker = new CircuitBreaker("AirAlpha", 10, 4, 0.5, 1_000, 1);
+
+        record(breaker, null);
+        record(breaker, new RuntimeException("down"));
+        record(breaker, new RuntimeException("down"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state()); // only 3 calls so far
+
+        record(breaker, null);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Cancellations are not counted as failures")
+    void cancellationsIgnored() {
+        CircuitBreaker breaker = new CircuitBreaker("AirAlpha", 4, 2, 0.5, 1_000, 1);
+        for (int i = 0; i < 10; i++) {
+            record(breaker, new CancellationException());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0.0, breaker.failureRate());
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: rejections by the local bounded pool are not service failures")
+    void localRejectionsIgnored() {
+        Microservice saturated = new Microservice("AirAlpha", task -> {
+            throw new RejectedExecutionException("pool full");
+        });
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry(4, 2, 0.5, 60_000, 1);
+        AsyncProcessor processor = new AsyncProcessor().withCircuitBreakers(breakers);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(List.of(), processor.processAsyncFailPartial(List.of(saturated), List.of("nyc-lax")).join());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.states().get("AirAlpha"));
+        assertEquals(0.0, breakers.forService("AirAlpha").failureRate());
+    }
+
+    @Test
+    @DisplayName("Half-open admits probeCalls probes; success closes, failure re-opens")
+    void halfOpenProbes() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("AirAlpha", 2, 2, 0.5, 30, 2);
+        record(breaker, new RuntimeException("down"));
+        record(breaker, new RuntimeException("down"));
+        assertNull(breaker.tryAcquire());
+
+        Thread.sleep(50);
+        CircuitBreaker.Permit first = breaker.tryAcquire();
+        CircuitBreaker.Permit second = breaker.tryAcquire();
+        assertTrue(first.isProbe() && second.isProbe());
+        assertNull(breaker.tryAcquire()); // probes exhausted
+        first.onResult(null);
+        second.onResult(new RuntimeException("still down"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        Thread.sleep(50);
+        first = breaker.tryAcquire();
+        second = breaker.tryAcquire();
+        first.onResult(null);
+        second.onResult(null);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertFalse(breaker.tryAcquire().isProbe());
+    }
+
+    @Test
+    @DisplayName("Half-open: only a cancelled probe hands its slot back")
+    void cancelledNonProbeKeepsProbeLimit() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("AirAlpha", 2, 2, 0.5, 30, 1);
+        CircuitBreaker.Permit beforeTrip = breaker.tryAcquire(); // admitted while CLOSED
+        record(breaker, new RuntimeException("down"));
+        record(breaker, new RuntimeException("down"));
+
+        Thread.sleep(50);
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+        assertTrue(probe.isProbe());
+        beforeTrip.onResult(new CancellationException()); // not a probe: no slot to give back
+        assertNull(breaker.tryAcquire());
+
+        probe.onResult(new CancellationException());
+        assertNotNull(breaker.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: open circuit -> FailSoft fallback and FailPartial drop, with no call made")
+    void openCircuitSkipsCalls() {
+        AtomicInteger calls = new AtomicInteger();
+        Microservice down = new Microservice("AirAlpha") {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                calls.incrementAndGet();
+                return CompletableFuture.failedFuture(new RuntimeException("AirAlpha API down"));
+            }
+        };
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry(4, 2, 0.5, 60_000, 1);
+        AsyncProcessor processor = new AsyncProcessor().withCircuitBreakers(breakers);
+        List<Microservice> services = List.of(down, new Microservice("JetBravo"));
+        List<String> messages = List.of("nyc-lax", "nyc-sfo");
+
+        processor.processAsyncFailPartial(services, messages).join();
+        processor.processAsyncFailPartial(services, messages).join();
+        assertEquals(2, calls.get());
+        assertEquals(CircuitBreaker.State.OPEN, breakers.states().get("AirAlpha"));
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.states().get("JetBravo"));
+
+        assertEquals("QUOTE_UNAVAILABLE JetBravo:NYC-SFO",
+                processor.processAsyncFailSoft(services, messages, "QUOTE_UNAVAILABLE").join());
+        assertEquals(List.of("JetBravo:NYC-SFO"), processor.processAsyncFailPartial(services, messages).join());
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> processor.processAsyncFailFast(services, messages).join());
+        assertTrue(ex.getCause() instanceof CallNotPermittedException);
+        assertEquals(2, calls.get());
+    }
+
+    private static void record(CircuitBreaker breaker, Throwable outcome) {
+        CircuitBreaker.Permit permit = breaker.tryAcquire();
+        assertNotNull(permit);
+        permit.onResult(outcome);
+    }
+}
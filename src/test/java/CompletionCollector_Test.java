@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompletionCollector - lock-free arrival-order collection")
+public class CompletionCollector_Test {
+
+    @Test
+    @DisplayName("Concurrent adds from many threads all land, none lost or duplicated")
+    void concurrentAdds() throws InterruptedException {
+        int threads = 8;
+        int perThread = 10_000;
+        CompletionCollector collector = new CompletionCollector(threads * perThread);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    collector.add(id + ":" + i);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        List<String> results = collector.toList();
+        Set<String> distinct = new HashSet<>(results);
+        assertEquals(threads * perThread, results.size());
+        assertEquals(threads * perThread, distinct.size());
+    }
+
+    @Test
+    @DisplayName("Keeps arrival order; a partly filled collector returns only what arrived")
+    void arrivalOrderAndPartialFill() {
+        CompletionCollector collector = new CompletionCollector(3);
+        collector.add("JetBravo:NYC-LAX");
+        collector.add("AirAlpha:NYC-LAX");
+
+        assertEquals(List.of("JetBravo:NYC-LAX", "AirAlpha:NYC-LAX"), collector.toList());
+    }
+}
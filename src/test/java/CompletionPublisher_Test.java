@@ -0,0 +1,157 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("processAsyncCompletionStream - push-based completion order")
+public class CompletionPublisher_Test {
+
+    private final AsyncProcessor processor = new AsyncProcessor();
+
+    @Test
+    @DisplayName("All results are emitted, then onComplete")
+    void emitsAllThenCompletes() throws InterruptedException {
+        List<Microservice> services = List.of(
+                new Microservice("AirAlpha"),
+                new Microservice("JetBravo"),
+                new Microservice("SkyCharlie"));
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        processor.processAsyncCompletionStream(services, "nyc-lax").subscribe(subscriber);
+
+        List<String> received = List.of(subscriber.next(), subscriber.next(), subscriber.next());
+        assertTrue(received.containsAll(List.of("AirAlpha:NYC-LAX", "JetBravo:NYC-LAX", "SkyCharlie:NYC-LAX")));
+        assertEquals(RecordingSubscriber.COMPLETE, subscriber.next());
+    }
+
+    @Test
+    @DisplayName("First result arrives when the fastest service answers, not the slowest")
+    void firstResultIsNotHeldBackBySlowest() throws InterruptedException {
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        List<Microservice> services = List.of(fixedService("SlowAir", slow), new Microservice("JetBravo"));
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        processor.processAsyncCompletionStream(services, "nyc-lax").subscribe(subscriber);
+
+        assertEquals("JetBravo:NYC-LAX", subscriber.next());
+        assertNull(subscriber.events.poll(100, TimeUnit.MILLISECONDS));
+        slow.complete("SlowAir:NYC-LAX");
+        assertEquals("SlowAir:NYC-LAX", subscriber.next());
+        assertEquals(RecordingSubscriber.COMPLETE, subscriber.next());
+    }
+
+    @Test
+    @DisplayName("Backpressure: nothing beyond the requested demand is delivered")
+    void honoursDemand() throws InterruptedException {
+        List<Microservice> services = List.of(
+                fixedService("AirAlpha", CompletableFuture.completedFuture("a")),
+                fixedService("JetBravo", CompletableFuture.completedFuture("b")),
+                fixedService("SkyCharlie", CompletableFuture.completedFuture("c")));
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+
+        processor.processAsyncCompletionStream(services, "nyc-lax").subscribe(subscriber);
+
+        assertNotNull(subscriber.next());
+        assertNull(subscriber.events.poll(100, TimeUnit.MILLISECONDS));
+        subscriber.subscription.request(2);
+        assertNotNull(subscriber.next());
+        assertNotNull(subscriber.next());
+        assertEquals(RecordingSubscriber.COMPLETE, subscriber.next());
+    }
+
+    @Test
+    @DisplayName("A failure is signalled with onError and the outstanding calls are cancelled")
+    void failureTerminatesAndCancels() throws InterruptedException {
+        CompletableFuture<String> hanging = new CompletableFuture<>();
+        List<Microservice> services = List.of(
+                fixedService("StuckAir", hanging),
+                fixedService("AirAlpha", CompletableFuture.failedFuture(new RuntimeException("AirAlpha API down"))));
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        processor.processAsyncCompletionStream(services, "nyc-lax").subscribe(subscriber);
+
+        assertEquals("error:AirAlpha API down", subscriber.next());
+        assertTrue(hanging.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Cancelling the subscription cancels the outstanding calls")
+    void cancelStopsCalls() throws InterruptedException {
+        CompletableFuture<String> hanging = new CompletableFuture<>();
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        processor.processAsyncCompletionStream(List.of(fixedService("StuckAir", hanging)), "nyc-lax")
+                .subscribe(subscriber);
+        subscriber.subscription.cancel();
+
+        assertTrue(hanging.isCancelled());
+        assertNull(subscriber.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("A Deadline passed with the stream applies to its calls")
+    void deadlineApplies() throws InterruptedException {
+        CompletableFuture<String> hanging = new CompletableFuture<>();
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        processor.processAsyncCompletionStream(List.of(fixedService("StuckAir", hanging)), "nyc-lax",
+                Deadline.after(0)).subscribe(subscriber);
+
+        assertEquals("error:Deadline passed for StuckAir", subscriber.next());
+    }
+
+    private Microservice fixedService(String serviceId, CompletableFuture<String> response) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return response;
+            }
+        };
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<String> {
+        static final String COMPLETE = "<complete>";
+
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        final long initialDemand;
+        volatile Flow.Subscription subscription;
+
+        RecordingSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialDemand);
+        }
+
+        @Override
+        public void onNext(String item) {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            events.add("error:" + throwable.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+            events.add(COMPLETE);
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(2, TimeUnit.SECONDS);
+            assertNotNull(event, "no event within 2s");
+            return event;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Deadline - end-to-end budgets through AsyncProcessor")
+public class Deadline_Test {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    @DisplayName("Remaining time counts down; within() keeps the earlier deadline")
+    void deadlineArithmetic() throws InterruptedException {
+        Deadline deadline = Deadline.after(200);
+        assertTrue(deadline.remainingMs() <= 200);
+        assertSame(deadline, deadline.within(10_000));
+        assertTrue(deadline.within(50).remainingMs() <= 50);
+        assertEquals(Long.MAX_VALUE, Deadline.none().remainingMs());
+        assertFalse(Deadline.none().isExpired());
+
+        Deadline shortOne = Deadline.after(10);
+        Thread.sleep(20);
+        assertTrue(shortOne.isExpired());
+        assertEquals(0, shortOne.remainingMs());
+
+        long arrived = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(150);
+        assertTrue(Deadline.after(arrived, 200).remainingMs() <= 50, "counted from arrival");
+    }
+
+    @Test
+    @DisplayName("FailSoft: a hanging service is cut off at the deadline, not at the 500 ms timeout")
+    void timeoutFollowsDeadline() {
+        AsyncProcessor processor = new AsyncProcessor();
+        List<Microservice> services = List.of(hangingService("StuckAir"), new Microservice("JetBravo"));
+
+        long start = System.nanoTime();
+        String actual = processor.processAsyncFailSoft(services, List.of("nyc-lax", "nyc-sfo"), "QUOTE_UNAVAILABLE",
+                Deadline.after(120)).join();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("QUOTE_UNAVAILABLE JetBravo:NYC-SFO", actual);
+        assertTrue(elapsedMs < 400, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    @DisplayName("Expired or doomed calls are not started")
+    void doomedCallsAreNotStarted() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts(10, 1_000);
+        for (int i = 0; i < 20; i++) {
+            timeouts.record("SlowAir", TimeUnit.MILLISECONDS.toNanos(200));
+        }
+        AsyncProcessor processor = new AsyncProcessor().withAdaptiveTimeouts(timeouts);
+
+        CompletionException expired = assertThrows(CompletionException.class,
+                () -> processor.processAsyncFailFast(List.of(countingService("AirAlpha")), List.of("nyc-lax"),
+                        Deadline.after(0)).join());
+        CompletionException doomed = assertThrows(CompletionException.class,
+                () -> processor.processAsyncFailFast(List.of(countingService("SlowAir")), List.of("nyc-lax"),
+                        Deadline.after(50)).join());
+
+        assertTrue(expired.getCause() instanceof DeadlineExceededException);
+        assertTrue(doomed.getCause() instanceof DeadlineExceededException);
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("Timeouts cut short by the deadline do not trip the circuit breaker")
+    void deadlineTimeoutsDoNotOpenBreaker() {
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry(4, 2, 0.5, 5_000, 1);
+        AsyncProcessor processor = new AsyncProcessor().withCircuitBreakers(breakers);
+
+        for (int i = 0; i < 4; i++) {
+            processor.processAsyncFailSoft(List.of(hangingService("StuckAir")), List.of("nyc-lax"), "X",
+                    Deadline.after(20)).join();
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.forService("StuckAir").state());
+    }
+
+    @Test
+    @DisplayName("The deadline reaches Microservice through hedging and batching too")
+    void deadlineReachesServiceThroughHedgingAndBatching() {
+        List<Deadline> seen = new CopyOnWriteArrayList<>();
+        Microservice service = new Microservice("AirAlpha") {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input, Deadline deadline) {
+                seen.add(deadline);
+                return CompletableFuture.completedFuture("AirAlpha:" + input);
+            }
+
+            @Override
+            public CompletableFuture<List<String>> retrieveBatchAsync(List<String> inputs, Deadline deadline) {
+                seen.add(deadline);
+                return CompletableFuture.completedFuture(inputs);
+            }
+        };
+        Deadline deadline = Deadline.after(5_000);
+
+        new AsyncProcessor().withHedging(new HedgePolicy(0.95, 1, 100))
+                .processAsyncFailFast(List.of(service), List.of("nyc-lax"), deadline).join();
+        new AsyncProcessor().withBatching(new MicroBatcher(1, 10))
+                .processAsyncFailFast(List.of(service), List.of("nyc-lax"), deadline).join();
+
+        assertEquals(List.of(deadline, deadline), seen);
+    }
+
+    @Test
+    @DisplayName("A batch sheds callers whose deadline passed and carries the latest of the rest")
+    void batchCarriesLatestDeadline() {
+        List<Deadline> seen = new CopyOnWriteArrayList<>();
+        Microservice service = new Microservice("AirAlpha") {
+            @Override
+            public CompletableFuture<List<String>> retrieveBatchAsync(List<String> inputs, Deadline deadline) {
+                seen.add(deadline);
+                return CompletableFuture.completedFuture(inputs);
+            }
+        };
+        MicroBatcher batcher = new MicroBatcher(3, 1_000);
+        Deadline early = Deadline.after(1_000);
+        Deadline late = Deadline.after(5_000);
+
+        CompletableFuture<String> expired = batcher.retrieve(service, "a", Deadline.after(0));
+        CompletableFuture<String> first = batcher.retrieve(service, "b", late);
+        CompletableFuture<String> second = batcher.retrieve(service, "c", early);
+
+        CompletionException shed = assertThrows(CompletionException.class, expired::join);
+        assertTrue(shed.getCause() instanceof DeadlineExceededException);
+        assertEquals("b", first.join());
+        assertEquals("c", second.join());
+        assertEquals(List.of(late), seen);
+        assertSame(late, early.orLater(late));
+        assertSame(Deadline.none(), late.orLater(Deadline.none()));
+    }
+
+    private Microservice countingService(String serviceId) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                calls.incrementAndGet();
+                return super.retrieveAsync(input);
+            }
+        };
+    }
+
+    private Microservice hangingService(String serviceId) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return new CompletableFuture<>();
+            }
+        };
+    }
+}
@@ -0,0 +1,140 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FailureSink - sampled, non-blocking failure reporting")
+public class FailureSink_Test {
+
+    @Test
+    @DisplayName("Events are written by the background thread with service, policy and cause")
+    void writesEvents() {
+        StringBuffer out = new StringBuffer();
+        try (FailureSink sink = new FailureSink(16, 0, out)) {
+            sink.record("AirAlpha", AggregationPolicy.FAIL_SOFT, new RuntimeException("AirAlpha API down"));
+
+            assertTrue(sink.awaitDrained(2_000));
+            assertEquals("[FAIL_SOFT] Service failed: AirAlpha: RuntimeException: AirAlpha API down\n",
+                    out.toString());
+            assertEquals(1, sink.written());
+        }
+    }
+
+    @Test
+    @DisplayName("Repeats within the interval are suppressed and reported with the next event")
+    void suppressesRepeats() throws InterruptedException {
+        StringBuffer out = new StringBuffer();
+        try (FailureSink sink = new FailureSink(16, 50, out)) {
+            for (int i = 0; i < 100; i++) {
+                sink.record("AirAlpha", AggregationPolicy.FAIL_PARTIAL, new RuntimeException("down"));
+            }
+            sink.record("JetBravo", AggregationPolicy.FAIL_PARTIAL, new RuntimeException("down"));
+            Thread.sleep(60);
+            sink.record("AirAlpha", AggregationPolicy.FAIL_PARTIAL, new RuntimeException("still down"));
+
+            assertTrue(sink.awaitDrained(2_000));
+            assertEquals(3, sink.written());
+            assertEquals(99, sink.suppressed());
+            assertTrue(out.toString().contains("AirAlpha: RuntimeException: still down (+99 suppressed)\n"));
+        }
+    }
+
+    @Test
+    @DisplayName("A stalled writer makes record drop events, never block")
+    void dropsWhenFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        Appendable stalled = new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                return append(csq);
+            }
+
+            @Override
+            public Appendable append(char c) {
+                return append(String.valueOf(c));
+            }
+        };
+        try (FailureSink sink = new FailureSink(4, 0, stalled)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+                for (int i = 0; i < 1_000; i++) {
+                    sink.record("AirAlpha", AggregationPolicy.FAIL_SOFT, new RuntimeException("down"));
+                }
+            });
+            assertTrue(sink.dropped() >= 1_000 - 5, "dropped " + sink.dropped());
+            release.countDown();
+            assertTrue(sink.awaitDrained(2_000));
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent producers lose nothing while the ring has room")
+    void concurrentProducersDropNothing() throws InterruptedException {
+        int producers = 8;
+        int perProducer = 4_000;
+        try (FailureSink sink = new FailureSink(producers * perProducer, 0, new StringBuffer())) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                String serviceId = "svc-" + p;
+                Thread producer = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perProducer; i++) {
+                        sink.record(serviceId, AggregationPolicy.FAIL_SOFT, new RuntimeException("down"));
+                    }
+                });
+                threads.add(producer);
+                producer.start();
+            }
+            start.countDown();
+            for (Thread producer : threads) {
+                producer.join();
+            }
+
+            assertTrue(sink.awaitDrained(10_000));
+            assertEquals(0, sink.dropped());
+            assertEquals(producers * perProducer, sink.written());
+        }
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: FailPartial and FailSoft report absorbed failures to the sink")
+    void processorReportsToSink() {
+        StringBuffer out = new StringBuffer();
+        try (FailureSink sink = new FailureSink(16, 0, out)) {
+            AsyncProcessor processor = new AsyncProcessor().withFailureSink(sink);
+            Microservice failing = new Microservice("AirAlpha") {
+                @Override
+                public CompletableFuture<String> retrieveAsync(String input) {
+                    return CompletableFuture.failedFuture(new RuntimeException("AirAlpha API down"));
+                }
+            };
+
+            processor.processAsyncFailPartial(List.of(failing), List.of("nyc-lax")).join();
+            processor.processAsyncFailSoft(List.of(failing), List.of("nyc-lax"), "X").join();
+
+            assertTrue(sink.awaitDrained(2_000));
+            assertTrue(out.toString().contains("[FAIL_PARTIAL] Service failed: AirAlpha"));
+            assertTrue(out.toString().contains("[FAIL_SOFT] Service failed: AirAlpha"));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HashedWheelTimer - O(1) per-call timeouts")
+public class HashedWheelTimer_Test {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer(1);
+
+    @AfterEach
+    void closeTimer() {
+        timer.close();
+    }
+
+    @Test
+    @DisplayName("A pending call fails with TimeoutException no earlier than its timeout")
+    void firesAfterTimeout() {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        long start = System.nanoTime();
+        timer.timeout(call, 50);
+
+        CompletionException thrown = assertThrows(CompletionException.class, call::join);
+        assertTrue(thrown.getCause() instanceof TimeoutException);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50), "fired early");
+        assertEquals(1, timer.expired());
+        assertEquals(0, timer.pending());
+    }
+
+    @Test
+    @DisplayName("Timeouts longer than one turn of the wheel wait out their rounds")
+    void multipleRounds() {
+        HashedWheelTimer small = new HashedWheelTimer(1, TimeUnit.MILLISECONDS, 8, Runnable::run);
+        try {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            long start = System.nanoTime();
+            small.timeout(call, 40); // five turns of an 8-tick wheel
+
+            assertThrows(CompletionException.class, call::join);
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40), "fired early");
+        } finally {
+            small.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Calls that complete in time cancel their timeouts; nothing is left pending")
+    void completionCancels() throws InterruptedException {
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            timer.timeout(call, 60_000);
+            calls.add(call);
+        }
+        assertEquals(100_000, timer.pending());
+        calls.forEach(call -> call.complete("ok"));
+        assertEquals(0, timer.pending());
+
+        Thread.sleep(20); // the worker unlinks them on its next ticks
+        assertEquals(0, timer.expired());
+        assertTrue(calls.stream().allMatch(call -> "ok".equals(call.join())));
+    }
+
+    @Test
+    @DisplayName("Expired calls are failed on the callback executor, not the wheel thread")
+    void callbackExecutor() {
+        ExecutorService callbacks = Executors.newSingleThreadExecutor(ServiceExecutors.daemonThreads("callbacks"));
+        HashedWheelTimer wheel = new HashedWheelTimer(1, TimeUnit.MILLISECONDS, 64, callbacks);
+        try {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            wheel.timeout(call, 5);
+            String thread = call.handle((r, ex) -> Thread.currentThread().getName()).join();
+            assertTrue(thread.startsWith("callbacks"), thread);
+        } finally {
+            wheel.close();
+            callbacks.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: a hanging service is timed out by the wheel")
+    void processorUsesWheel() {
+        AsyncProcessor processor = new AsyncProcessor().withTimeoutScheduler(timer);
+        Microservice hanging = new Microservice("StuckAir") {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return new CompletableFuture<>();
+            }
+        };
+        List<Microservice> services = List.of(hanging, new Microservice("JetBravo"));
+
+        String result = processor.processAsyncFailSoft(services, List.of("nyc-lax", "nyc-lax"), "N/A").join();
+
+        assertEquals("N/A JetBravo:NYC-LAX", result);
+        assertEquals(1, timer.expired());
+    }
+}
@@ -0,0 +1,166 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HedgePolicy - hedged requests for tail latency")
+public class HedgePolicy_Test {
+
+    @Test
+    @DisplayName("Slow primary: hedge to replica answers first, primary is cancelled")
+    void hedgeWinsAgainstSlowPrimary() {
+        CompletableFuture<String> primaryCall = new CompletableFuture<>();
+        Microservice primary = fixedService("AirAlpha", primaryCall);
+        Microservice replica = delayedService("AirAlpha-replica", 0);
+        HedgePolicy policy = new HedgePolicy(0.95, 20, 20, RatioBudget.unlimited(), ms -> replica,
+                ServiceExecutors.scheduler());
+
+        long start = System.nanoTime();
+        String result = policy.retrieve(primary, "nyc-lax").join();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("AirAlpha-replica:NYC-LAX", result);
+        assertTrue(elapsedMs < 250, "took " + elapsedMs + "ms");
+        assertTrue(primaryCall.isCancelled());
+        assertEquals(1, policy.hedgesSent());
+        assertEquals(1, policy.hedgeWins());
+    }
+
+    @Test
+    @DisplayName("Fast primary: no hedge is sent")
+    void fastPrimaryNeedsNoHedge() {
+        AtomicInteger calls = new AtomicInteger();
+        Microservice service = countingService("AirAlpha", calls);
+        HedgePolicy policy = new HedgePolicy(0.95, 100, 100);
+
+        assertEquals("AirAlpha:NYC-LAX", policy.retrieve(service, "nyc-lax").join());
+        assertEquals(1, calls.get());
+        assertEquals(0, policy.hedgesSent());
+    }
+
+    @Test
+    @DisplayName("Exhausted budget: no hedge, caller waits for the primary")
+    void budgetCapsHedges() {
+        Microservice primary = delayedService("AirAlpha", 80);
+        HedgePolicy policy = new HedgePolicy(0.95, 10, 10, new RatioBudget(0.0, 0),
+                ms -> delayedService("replica", 0), ServiceExecutors.scheduler());
+
+        assertEquals("AirAlpha:NYC-LAX", policy.retrieve(primary, "nyc-lax").join());
+        assertEquals(0, policy.hedgesSent());
+        assertEquals(1, policy.budgetDenied());
+    }
+
+    @Test
+    @DisplayName("Primary fails before the hedge delay: failure is returned, nothing is hedged")
+    void earlyFailureIsNotHedged() {
+        Microservice failing = fixedService("AirAlpha",
+                CompletableFuture.failedFuture(new RuntimeException("AirAlpha API down")));
+        HedgePolicy policy = new HedgePolicy(0.95, 50, 50);
+
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> policy.retrieve(failing, "nyc-lax").join());
+        assertEquals("AirAlpha API down", ex.getCause().getMessage());
+        assertEquals(0, policy.hedgesSent());
+    }
+
+    @Test
+    @DisplayName("Hedge delay tracks the observed percentile within its bounds")
+    void delayFollowsObservedPercentile() {
+        HedgePolicy policy = new HedgePolicy(0.5, 1, 400);
+        assertEquals(400, policy.hedgeDelayMs("AirAlpha")); // no samples yet
+
+        Microservice service = delayedService("AirAlpha", 30);
+        for (int i = 0; i < HedgePolicy.MIN_SAMPLES; i++) {
+            policy.retrieve(service, "nyc-lax").join();
+        }
+
+        long delay = policy.hedgeDelayMs("AirAlpha");
+        assertTrue(delay >= 25 && delay < 400, "delay was " + delay);
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: hedging plugs into FailSoft and rescues a hanging service")
+    void processorUsesHedging() {
+        Microservice replica = delayedService("StuckAir", 0);
+        AsyncProcessor processor = new AsyncProcessor().withHedging(new HedgePolicy(0.95, 20, 20,
+                RatioBudget.unlimited(), ms -> ms.getServiceId().equals("StuckAir") ? replica : ms,
+                ServiceExecutors.scheduler()));
+        List<Microservice> services = List.of(
+                fixedService("StuckAir", new CompletableFuture<>()),
+                new Microservice("JetBravo"));
+
+        String result = processor
+                .processAsyncFailSoft(services, List.of("nyc-lax", "nyc-sfo"), "QUOTE_UNAVAILABLE")
+                .join();
+
+        assertEquals("StuckAir:NYC-LAX JetBravo:NYC-SFO", result);
+    }
+
+    @Test
+    @DisplayName("RatioBudget: extra calls limited to ratio of recorded requests")
+    void ratioBudgetLimitsExtraCalls() {
+        RatioBudget budget = new RatioBudget(0.1, 1);
+        assertTrue(budget.tryAcquire()); // starts full
+        assertFalse(budget.tryAcquire());
+
+        for (int i = 0; i < 9; i++) {
+            budget.recordRequest();
+        }
+        assertFalse(budget.tryAcquire());
+        budget.recordRequest();
+        assertTrue(budget.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Bimodal service: cancelled losers count as censored samples, so the hedge delay holds")
+    void hedgeDelayStableUnderBimodalLatency() {
+        Microservice service = new SimulatedMicroservice("AirAlpha", 11, LatencyDistribution.bimodal(
+                LatencyDistribution.fixed(2), LatencyDistribution.fixed(60), 0.25));
+        HedgePolicy policy = new HedgePolicy(0.9, 1, 30, RatioBudget.unlimited(), ms -> ms,
+                ServiceExecutors.scheduler());
+
+        for (int i = 0; i < 80; i++) {
+            policy.retrieve(service, "nyc-lax").join();
+        }
+
+        // a slow primary loses to its 2 ms hedge and is cancelled at ~32 ms; recording only
+        // winners would hide those and pull the delay down to the fast mode
+        long delayMs = policy.hedgeDelayMs("AirAlpha");
+        assertTrue(delayMs >= 20, "hedge delay " + delayMs + " ms");
+    }
+
+    private Microservice fixedService(String serviceId, CompletableFuture<String> response) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return response;
+            }
+        };
+    }
+
+    private Microservice delayedService(String serviceId, long delayMs) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return CompletableFuture.supplyAsync(() -> serviceId + ":" + input.toUpperCase(),
+                        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+            }
+        };
+    }
+
+    private Microservice countingService(String serviceId, AtomicInteger calls) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                calls.incrementAndGet();
+                return CompletableFuture.completedFuture(serviceId + ":" + input.toUpperCase());
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Main - load-test driver")
+public class Main_Test {
+
+    @Test
+    @DisplayName("Options and latency specs are parsed; bad ones are rejected")
+    void parsing() throws Exception {
+        Map<String, String> options = Main.parse(new String[] { "--policy=fail-soft", "--rate=250" });
+        assertEquals(Map.of("policy", "fail-soft", "rate", "250"), options);
+        assertThrows(IllegalArgumentException.class, () -> Main.parse(new String[] { "rate=250" }));
+
+        assertEquals(5_000, Main.latency("fixed:5").sampleMicros(0, new SplittableRandom(1)));
+        assertTrue(Main.latency("pareto:2:1.5").sampleMicros(0, new SplittableRandom(1)) >= 2_000);
+        assertThrows(IllegalArgumentException.class, () -> Main.latency("gamma:1"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new Main.LoadTest(Main.parse(new String[] { "--policy=completion-stream" })));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Main.LoadTest(Main.parse(new String[] { "--policy=round-robin" })));
+    }
+
+    @Test
+    @DisplayName("A short run reports every arrival, in CSV and JSON with the same fields")
+    void shortRun() throws Exception {
+        Main.Report report = new Main.LoadTest(Main.parse(new String[] {
+                "--policy=fail-partial", "--fanout=4", "--rate=200", "--duration=0.5", "--warmup=0",
+                "--latency=fixed:1", "--failure=0.5" })).run();
+
+        String[] csv = report.toCsv().split("\\R");
+        assertEquals(2, csv.length);
+        assertEquals(csv[0].split(",").length, csv[1].split(",").length);
+        assertTrue(csv[1].startsWith("fail-partial,4,fixed:1,"), csv[1]);
+
+        String json = report.toJson();
+        assertTrue(json.contains("\"issued\":100"), json);
+        assertTrue(json.contains("\"completed\":100"), json);
+        assertTrue(json.contains("\"throughput_per_s\":200.0000"), json);
+        assertTrue(json.contains("\"error_rate\":0.0000"), json); // FailPartial absorbs failures
+        assertFalse(json.contains("\"call_error_rate\":0.0000"), json);
+    }
+}
@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MicroBatcher - batched retrieve with size and linger limits")
+public class MicroBatcher_Test {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("Inputs within the linger window go out as one batch, results scattered back")
+    void lingerGroupsInputs() {
+        MicroBatcher batcher = new MicroBatcher(100, 20);
+        Microservice service = recordingService("AirAlpha");
+
+        CompletableFuture<String> lax = batcher.retrieve(service, "nyc-lax");
+        CompletableFuture<String> sfo = batcher.retrieve(service, "nyc-sfo");
+
+        assertEquals("AirAlpha:NYC-LAX", lax.join());
+        assertEquals("AirAlpha:NYC-SFO", sfo.join());
+        assertEquals(List.of(List.of("nyc-lax", "nyc-sfo")), batches);
+    }
+
+    @Test
+    @DisplayName("A full batch is sent at once without waiting for the linger time")
+    void fullBatchSkipsLinger() {
+        MicroBatcher batcher = new MicroBatcher(2, 60_000);
+        Microservice service = recordingService("AirAlpha");
+
+        CompletableFuture<String> lax = batcher.retrieve(service, "nyc-lax");
+        CompletableFuture<String> sfo = batcher.retrieve(service, "nyc-sfo");
+
+        assertEquals(List.of("AirAlpha:NYC-LAX", "AirAlpha:NYC-SFO"), List.of(lax.join(), sfo.join()));
+        assertEquals(1, batcher.batchesSent());
+    }
+
+    @Test
+    @DisplayName("A failed batch fails every input in it")
+    void failureFansOut() {
+        MicroBatcher batcher = new MicroBatcher(2, 60_000);
+        Microservice service = new Microservice("AirAlpha") {
+            @Override
+            public CompletableFuture<List<String>> retrieveBatchAsync(List<String> inputs) {
+                return CompletableFuture.failedFuture(new RuntimeException("AirAlpha API down"));
+            }
+        };
+
+        CompletableFuture<String> lax = batcher.retrieve(service, "nyc-lax");
+        CompletableFuture<String> sfo = batcher.retrieve(service, "nyc-sfo");
+
+        assertThrows(CompletionException.class, lax::join);
+        assertThrows(CompletionException.class, sfo::join);
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: repeated services become one call per service, in input order")
+    void processorBatchesPerService() {
+        AsyncProcessor processor = new AsyncProcessor().withBatching(new MicroBatcher(50, 20));
+        Microservice alpha = recordingService("AirAlpha");
+        Microservice bravo = recordingService("JetBravo");
+        List<Microservice> services = new ArrayList<>();
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            services.add(i % 2 == 0 ? alpha : bravo);
+            messages.add("route-" + i);
+        }
+
+        String actual = processor.processAsyncFailFast(services, messages).join();
+
+        String expected = IntStream.range(0, 20)
+                .mapToObj(i -> (i % 2 == 0 ? "AirAlpha" : "JetBravo") + ":ROUTE-" + i)
+                .collect(Collectors.joining(" "));
+        assertEquals(expected, actual);
+        assertEquals(2, batches.size());
+    }
+
+    private Microservice recordingService(String serviceId) {
+        return new Microservice(serviceId) {
+            @Override
+            protected List<String> handleBatch(List<String> inputs) {
+                batches.add(inputs);
+                return super.handleBatch(inputs);
+            }
+        };
+    }
+}
@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RateLimiter - non-blocking per-service quotas")
+public class RateLimiter_Test {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100); // 10 permits/s
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("A burst passes at once, later calls are spaced one interval apart")
+    void burstThenSpacing() {
+        RateLimiter limiter = new RateLimiter("AirAlpha", 10, 3, 10_000, ServiceExecutors.scheduler(), now::get);
+
+        assertEquals(0, limiter.reserve(Long.MAX_VALUE));
+        assertEquals(0, limiter.reserve(Long.MAX_VALUE));
+        assertEquals(0, limiter.reserve(Long.MAX_VALUE));
+        assertEquals(INTERVAL, limiter.reserve(Long.MAX_VALUE));
+        assertEquals(2 * INTERVAL, limiter.reserve(Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Idle time refills the bucket up to the burst, no further")
+    void refill() {
+        RateLimiter limiter = new RateLimiter("AirAlpha", 10, 2, 10_000, ServiceExecutors.scheduler(), now::get);
+        limiter.reserve(Long.MAX_VALUE);
+        limiter.reserve(Long.MAX_VALUE);
+
+        now.addAndGet(10 * INTERVAL);
+
+        assertEquals(0, limiter.reserve(Long.MAX_VALUE));
+        assertEquals(0, limiter.reserve(Long.MAX_VALUE));
+        assertEquals(INTERVAL, limiter.reserve(Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("A call over the quota is started later from a timer, not rejected")
+    void delaysWithoutBlocking() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter("AirAlpha", 10, 1, 1_000);
+        AtomicBoolean secondStarted = new AtomicBoolean();
+
+        assertEquals("first", limiter.execute(() -> CompletableFuture.completedFuture("first"), Deadline.none()).join());
+        CompletableFuture<String> second = limiter.execute(() -> {
+            secondStarted.set(true);
+            return CompletableFuture.completedFuture("second");
+        }, Deadline.none());
+
+        assertFalse(second.isDone());
+        Thread.sleep(30);
+        assertFalse(secondStarted.get(), "started before its slot");
+        assertEquals("second", second.orTimeout(1, TimeUnit.SECONDS).join());
+        assertEquals(1, limiter.delayed());
+    }
+
+    @Test
+    @DisplayName("A wait beyond the deadline is rejected and takes no slot")
+    void rejectsPastDeadline() {
+        RateLimiter limiter = new RateLimiter("AirAlpha", 1, 1, 10_000, ServiceExecutors.scheduler(), now::get);
+        limiter.reserve(Long.MAX_VALUE);
+
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> limiter.execute(() -> CompletableFuture.completedFuture("x"), Deadline.after(100)).join());
+
+        assertTrue(thrown.getCause() instanceof RateLimitedException);
+        assertEquals(1, limiter.rejected());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.reserve(Long.MAX_VALUE), "rejected call took a slot");
+    }
+
+    @Test
+    @DisplayName("A delayed call cancelled before its slot never runs and gives the slot back")
+    void cancelRefunds() {
+        RateLimiter limiter = new RateLimiter("AirAlpha", 1, 1, 10_000, ServiceExecutors.scheduler(), now::get);
+        limiter.reserve(Long.MAX_VALUE);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> delayed = limiter.execute(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("x");
+        }, Deadline.none());
+        delayed.cancel(true);
+
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.reserve(Long.MAX_VALUE));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: processors sharing a registry share the quota")
+    void processorsShareQuota() {
+        RateLimiterRegistry limits = new RateLimiterRegistry().withLimit("AirAlpha", 1, 1);
+        AsyncProcessor first = new AsyncProcessor().withRateLimits(limits);
+        AsyncProcessor second = new AsyncProcessor().withRateLimits(limits);
+        List<Microservice> services = List.of(new Microservice("AirAlpha"), new Microservice("JetBravo"));
+        List<String> messages = List.of("nyc-lax", "nyc-lax");
+
+        assertEquals("AirAlpha:NYC-LAX JetBravo:NYC-LAX",
+                first.processAsyncFailSoft(services, messages, "N/A", Deadline.after(2_000)).join());
+        assertEquals("N/A JetBravo:NYC-LAX",
+                second.processAsyncFailSoft(services, messages, "N/A", Deadline.after(200)).join());
+        assertNull(limits.forService("JetBravo"), "services without a limit are not limited");
+        assertSame(RateLimiterRegistry.shared(), RateLimiterRegistry.shared());
+    }
+}
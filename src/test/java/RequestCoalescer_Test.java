@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RequestCoalescer - single-flight for identical calls")
+public class RequestCoalescer_Test {
+
+    @Test
+    @DisplayName("Concurrent callers for the same key share one downstream call")
+    void concurrentCallersShareOneCall() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CompletableFuture<String> downstream = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        List<CompletableFuture<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            waiters.add(coalescer.retrieve("AirAlpha", "nyc-lax", () -> {
+                calls.incrementAndGet();
+                return downstream;
+            }));
+        }
+        downstream.complete("AirAlpha:NYC-LAX");
+
+        waiters.forEach(w -> assertEquals("AirAlpha:NYC-LAX", w.join()));
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.misses());
+        assertEquals(49, coalescer.hits());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    @DisplayName("Different inputs or finished flights are not coalesced")
+    void distinctKeysAndFinishedFlights() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.retrieve("AirAlpha", "nyc-lax", () -> completed(calls, "a")).join();
+        coalescer.retrieve("AirAlpha", "nyc-sfo", () -> completed(calls, "b")).join();
+        coalescer.retrieve("AirAlpha", "nyc-lax", () -> completed(calls, "c")).join();
+
+        assertEquals(3, calls.get());
+        assertEquals(0, coalescer.hits());
+    }
+
+    @Test
+    @DisplayName("One waiter cancelling does not cancel the shared call; the last one does")
+    void cancellationIsPerWaiter() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CompletableFuture<String> downstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.retrieve("AirAlpha", "nyc-lax", () -> downstream);
+        CompletableFuture<String> second = coalescer.retrieve("AirAlpha", "nyc-lax", () -> downstream);
+
+        first.cancel(true);
+        assertFalse(downstream.isCancelled());
+
+        second.cancel(true);
+        assertTrue(downstream.isCancelled());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: concurrent aggregations asking for the same quote share calls")
+    void processorCoalescesAcrossAggregations() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AsyncProcessor processor = new AsyncProcessor().withCoalescing(coalescer);
+        AtomicInteger calls = new AtomicInteger();
+        Microservice service = new Microservice("AirAlpha") {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                calls.incrementAndGet();
+                return super.retrieveAsync(input);
+            }
+        };
+
+        List<CompletableFuture<List<String>>> aggregations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            aggregations.add(processor.processAsyncFailPartial(List.of(service), List.of("nyc-lax")));
+        }
+
+        aggregations.forEach(a -> assertEquals(List.of("AirAlpha:NYC-LAX"), a.join()));
+        assertEquals(calls.get(), coalescer.misses());
+        assertEquals(20, coalescer.hits() + coalescer.misses());
+        assertTrue(calls.get() < 20, "calls: " + calls.get());
+    }
+
+    private static CompletableFuture<String> completed(AtomicInteger calls, String value) {
+        calls.incrementAndGet();
+        return CompletableFuture.completedFuture(value);
+    }
+}
@@ -0,0 +1,164 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ResponseCache - TTL, stale-while-revalidate, negative caching, eviction")
+public class ResponseCache_Test {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    @DisplayName("Fresh entry is served without calling the service")
+    void freshHit() {
+        ResponseCache cache = new ResponseCache(10, 100, 0, 0, now::get);
+
+        assertEquals("v1", cache.retrieve("AirAlpha", "nyc-lax", this::load).join());
+        advanceMs(50);
+        assertEquals("v1", cache.retrieve("AirAlpha", "nyc-lax", this::load).join());
+
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    @DisplayName("Stale entry is served immediately while one refresh runs in the background")
+    void staleWhileRevalidate() {
+        ResponseCache cache = new ResponseCache(10, 100, 1_000, 0, now::get);
+        cache.retrieve("AirAlpha", "nyc-lax", this::load).join();
+        advanceMs(150);
+
+        CompletableFuture<String> pendingRefresh = new CompletableFuture<>();
+        AtomicInteger refreshes = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("v1", cache.retrieve("AirAlpha", "nyc-lax", () -> {
+                refreshes.incrementAndGet();
+                return pendingRefresh;
+            }).join());
+        }
+        assertEquals(1, refreshes.get());
+        assertEquals(5, cache.staleHits());
+
+        pendingRefresh.complete("v2");
+        assertEquals("v2", cache.retrieve("AirAlpha", "nyc-lax", this::load).join());
+    }
+
+    @Test
+    @DisplayName("Expired entry is a miss")
+    void expiredIsMiss() {
+        ResponseCache cache = new ResponseCache(10, 100, 100, 0, now::get);
+        cache.retrieve("AirAlpha", "nyc-lax", this::load).join();
+        advanceMs(250);
+
+        assertEquals("v2", cache.retrieve("AirAlpha", "nyc-lax", this::load).join());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    @DisplayName("Failures are cached only when negative caching is on")
+    void negativeCaching() {
+        ResponseCache off = new ResponseCache(10, 100, 0, 0, now::get);
+        assertThrows(CompletionException.class, () -> off.retrieve("AirAlpha", "x", this::fail).join());
+        assertThrows(CompletionException.class, () -> off.retrieve("AirAlpha", "x", this::fail).join());
+        assertEquals(2, calls.get());
+
+        calls.set(0);
+        ResponseCache on = new ResponseCache(10, 100, 0, 50, now::get);
+        assertThrows(CompletionException.class, () -> on.retrieve("AirAlpha", "x", this::fail).join());
+        assertThrows(CompletionException.class, () -> on.retrieve("AirAlpha", "x", this::fail).join());
+        assertEquals(1, calls.get());
+        advanceMs(60);
+        assertEquals("v2", on.retrieve("AirAlpha", "x", this::load).join());
+    }
+
+    @Test
+    @DisplayName("Local refusals, timeouts and spent deadlines are not replayed to other callers")
+    void negativeCachingSkipsCallerSpecificFailures() {
+        ResponseCache cache = new ResponseCache(10, 100, 0, 50, now::get);
+        List<Throwable> notCached = List.of(
+                new DeadlineExceededException("AirAlpha", "Deadline passed"),
+                new CallNotPermittedException("AirAlpha", "Circuit open"),
+                new TimeoutException());
+        for (Throwable failure : notCached) {
+            assertThrows(CompletionException.class,
+                    () -> cache.retrieve("AirAlpha", "x", () -> CompletableFuture.failedFuture(failure)).join());
+            assertEquals("v1", cache.retrieve("AirAlpha", "x", this::load).join(), failure.toString());
+            cache.invalidateAll();
+            calls.set(0);
+        }
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: an expired deadline on one call does not fail the next")
+    void processorDoesNotCacheDeadlineFailures() {
+        AsyncProcessor processor = new AsyncProcessor().withCache(new ResponseCache(100, 60_000, 0, 60_000));
+        List<Microservice> services = List.of(new Microservice("AirAlpha"));
+        List<String> messages = List.of("nyc");
+
+        assertThrows(CompletionException.class,
+                () -> processor.processAsyncFailFast(services, messages, Deadline.after(0)).join());
+        assertEquals("AirAlpha:NYC", processor.processAsyncFailFast(services, messages).join());
+    }
+
+    @Test
+    @DisplayName("Size bound holds; recently used entries get a second chance")
+    void evictionKeepsBoundAndFavoursHits() {
+        ResponseCache cache = new ResponseCache(3, 10_000, 0, 0, now::get);
+        cache.retrieve("svc", "a", this::load).join();
+        cache.retrieve("svc", "b", this::load).join();
+        cache.retrieve("svc", "c", this::load).join();
+        cache.retrieve("svc", "a", this::load).join(); // hit: a is referenced
+
+        cache.retrieve("svc", "d", this::load).join();
+
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.evictions());
+        int before = calls.get();
+        cache.retrieve("svc", "a", this::load).join();
+        assertEquals(before, calls.get(), "a should have survived eviction");
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor: cached quotes skip the service for every policy")
+    void processorUsesCache() {
+        AsyncProcessor processor = new AsyncProcessor().withCache(new ResponseCache(100, 60_000, 0, 0));
+        Microservice service = new Microservice("AirAlpha") {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                calls.incrementAndGet();
+                return super.retrieveAsync(input);
+            }
+        };
+        List<Microservice> services = List.of(service);
+        List<String> messages = List.of("nyc-lax");
+
+        assertEquals("AirAlpha:NYC-LAX", processor.processAsyncFailFast(services, messages).join());
+        assertEquals(List.of("AirAlpha:NYC-LAX"), processor.processAsyncFailPartial(services, messages).join());
+        assertEquals("AirAlpha:NYC-LAX", processor.processAsyncFailSoft(services, messages, "X").join());
+        assertEquals(List.of("AirAlpha:NYC-LAX"), processor.processAsyncCompletionOrder(services, "nyc-lax").join());
+        assertEquals(1, calls.get());
+    }
+
+    private CompletableFuture<String> load() {
+        return CompletableFuture.completedFuture("v" + calls.incrementAndGet());
+    }
+
+    private CompletableFuture<String> fail() {
+        calls.incrementAndGet();
+        return CompletableFuture.failedFuture(new RuntimeException("AirAlpha API down"));
+    }
+
+    private void advanceMs(long ms) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+}
@@ -0,0 +1,111 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RetryPolicy - budgeted retries with jittered backoff")
+public class RetryPolicy_Test {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    @DisplayName("FailFast: two transient failures are retried and the aggregation succeeds")
+    void transientFailuresAreRetried() {
+        RetryPolicy retries = new RetryPolicy(3, 5, 20);
+        AsyncProcessor processor = new AsyncProcessor().withRetries(retries);
+
+        String actual = processor.processAsyncFailFast(List.of(flakyService("AirAlpha", 2)), List.of("nyc-lax"))
+                .join();
+
+        assertEquals("AirAlpha:NYC-LAX", actual);
+        assertEquals(3, calls.get());
+        assertEquals(2, retries.retries());
+    }
+
+    @Test
+    @DisplayName("Gives up after maxAttempts and on failures the predicate rejects")
+    void stopsAtLimitsAndPredicate() {
+        RetryPolicy retries = new RetryPolicy(2, 1, 5);
+        AsyncProcessor processor = new AsyncProcessor().withRetries(retries);
+
+        assertThrows(CompletionException.class, () -> processor
+                .processAsyncFailFast(List.of(flakyService("AirAlpha", 5)), List.of("nyc-lax")).join());
+        assertEquals(2, calls.get());
+
+        calls.set(0);
+        Microservice refused = new Microservice("StuckAir") {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                calls.incrementAndGet();
+                return CompletableFuture.failedFuture(new CallNotPermittedException("StuckAir", "Circuit open"));
+            }
+        };
+        assertThrows(CompletionException.class,
+                () -> processor.processAsyncFailFast(List.of(refused), List.of("nyc-lax")).join());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("The shared budget caps retries across calls")
+    void budgetCapsRetries() {
+        RetryPolicy retries = new RetryPolicy(5, 0, 0, RetryPolicy::isTransient, new RatioBudget(0, 1),
+                ServiceExecutors.scheduler());
+        AsyncProcessor processor = new AsyncProcessor().withRetries(retries);
+
+        String actual = processor.processAsyncFailSoft(
+                List.of(flakyService("AirAlpha", 10), flakyService("JetBravo", 10)),
+                List.of("nyc-lax", "nyc-sfo"), "X").join();
+
+        assertEquals("X X", actual);
+        assertEquals(1, retries.retries());
+        assertEquals(2, retries.budgetDenied());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    @DisplayName("No retry is scheduled past the deadline")
+    void deadlineBoundsSequence() {
+        RetryPolicy retries = new RetryPolicy(10, 200, 200, RetryPolicy::isTransient, RatioBudget.unlimited(),
+                ServiceExecutors.scheduler());
+        AsyncProcessor processor = new AsyncProcessor().withRetries(retries);
+
+        long start = System.nanoTime();
+        assertThrows(CompletionException.class, () -> processor.processAsyncFailFast(
+                List.of(flakyService("AirAlpha", 100)), List.of("nyc-lax"), Deadline.after(50)).join());
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 200);
+    }
+
+    @Test
+    @DisplayName("Backoff is full jitter under the capped exponential")
+    void backoffBounds() {
+        RetryPolicy retries = new RetryPolicy(10, 10, 100);
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(retries.backoffMs(1) <= 10);
+            assertTrue(retries.backoffMs(3) <= 40);
+            assertTrue(retries.backoffMs(8) <= 100);
+            assertTrue(retries.backoffMs(100) <= 100);
+        }
+    }
+
+    // Fails its first `failures` calls, then answers normally.
+    private Microservice flakyService(String serviceId, int failures) {
+        AtomicInteger seen = new AtomicInteger();
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                calls.incrementAndGet();
+                if (seen.incrementAndGet() <= failures) {
+                    return CompletableFuture.failedFuture(new RuntimeException(serviceId + " API down"));
+                }
+                return super.retrieveAsync(input);
+            }
+        };
+    }
+}
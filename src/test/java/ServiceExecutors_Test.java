@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("ServiceExecutors - injected I/O and aggregation executors")
+public class ServiceExecutors_Test {
+
+    @Test
+    @DisplayName("Microservice runs its call on the injected I/O executor")
+    void microserviceUsesInjectedExecutor() throws Exception {
+        ThreadPoolExecutor io = ServiceExecutors.boundedIo("test-io", 2, 10);
+        AtomicInteger submitted = new AtomicInteger();
+        try {
+            Microservice service = new Microservice("svc-a", task -> {
+                submitted.incrementAndGet();
+                io.execute(task);
+            });
+
+            String result = service.retrieveAsync("msg").get(2, TimeUnit.SECONDS);
+
+            assertEquals("svc-a:MSG", result);
+            assertEquals(1, submitted.get());
+        } finally {
+            io.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Saturated bounded pool rejects through the future, not by throwing")
+    void rejectionSurfacesAsFailedFuture() throws Exception {
+        ThreadPoolExecutor io = ServiceExecutors.boundedIo("test-io", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            io.execute(() -> awaitQuietly(release)); // occupies the only thread
+            io.execute(() -> awaitQuietly(release)); // fills the queue
+
+            CompletableFuture<String> future = new Microservice("svc-a", io).retrieveAsync("msg");
+
+            ExecutionException ex = assertThrows(ExecutionException.class, future::get);
+            assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        } finally {
+            release.countDown();
+            io.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("FailPartial drops calls rejected by a saturated pool")
+    void failPartialDropsRejectedCalls() {
+        ThreadPoolExecutor io = ServiceExecutors.boundedIo("test-io", 1, 1);
+        ExecutorService cpu = ServiceExecutors.cpu("test-cpu", 1);
+        try {
+            AsyncProcessor processor = new AsyncProcessor(cpu);
+            List<Microservice> services = List.of(
+                    new Microservice("svc-a", io),
+                    new Microservice("svc-b", io),
+                    new Microservice("svc-c", io));
+
+            List<String> results = processor
+                    .processAsyncFailPartial(services, List.of("a", "b", "c"))
+                    .join();
+
+            // one call runs, one waits in the queue, the third is rejected
+            assertEquals(List.of("svc-a:A", "svc-b:B"), results);
+        } finally {
+            io.shutdownNow();
+            cpu.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Virtual-thread mode: large fan-out keeps FailFast ordering and FailSoft fallbacks")
+    void virtualThreadsKeepPolicies() {
+        assumeTrue(ServiceExecutors.virtualThreadsSupported(), "needs Java 21+");
+        ExecutorService io = ServiceExecutors.virtualThreadPerTask();
+        try {
+            AsyncProcessor processor = new AsyncProcessor();
+            int fanOut = 5_000;
+            List<Microservice> services = new ArrayList<>();
+            List<String> messages = new ArrayList<>();
+            for (int i = 0; i < fanOut; i++) {
+                services.add(new Microservice("svc-" + i, io));
+                messages.add("m" + i);
+            }
+
+            String failFast = processor.processAsyncFailFast(services, messages).join();
+            String[] parts = failFast.split(" ");
+            assertEquals(fanOut, parts.length);
+            assertEquals("svc-0:M0", parts[0]);
+            assertEquals("svc-4999:M4999", parts[fanOut - 1]);
+
+            List<Microservice> withFailure = new ArrayList<>(services.subList(0, 3));
+            withFailure.set(1, new Microservice("svc-x", io) {
+                @Override
+                public CompletableFuture<String> retrieveAsync(String input) {
+                    return CompletableFuture.failedFuture(new RuntimeException("down"));
+                }
+            });
+            assertEquals("svc-0:M0 FALLBACK svc-2:M2", processor
+                    .processAsyncFailSoft(withFailure, messages.subList(0, 3), "FALLBACK").join());
+            assertEquals(2, processor.processAsyncFailPartial(withFailure, messages.subList(0, 3)).join().size());
+            assertEquals(fanOut, processor.processAsyncCompletionOrder(services, "m").join().size());
+        } finally {
+            io.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
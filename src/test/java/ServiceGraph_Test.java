@@ -0,0 +1,134 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("processAsyncGraph - dependent service calls")
+public class ServiceGraph_Test {
+
+    private final AsyncProcessor processor = new AsyncProcessor()
+            .withFailureSink(new FailureSink(16, 0, new StringBuilder()));
+    private final Map<String, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+    private final Map<String, String> received = new ConcurrentHashMap<>();
+
+    @Test
+    @DisplayName("Outputs flow downstream; results come back in declaration order")
+    void chainPassesOutputs() {
+        ServiceGraph graph = new ServiceGraph()
+                .node("availability", new Microservice("Avail"), in -> "nyc-lax")
+                .node("pricing", new Microservice("Price"), in -> in.get("availability"), "availability")
+                .node("quote", new Microservice("Quote"), in -> in.get("pricing") + "+fee", "pricing");
+
+        Map<String, String> result = processor.processAsyncGraph(graph).join();
+
+        assertEquals(List.of("availability", "pricing", "quote"), List.copyOf(result.keySet()));
+        assertEquals("Quote:PRICE:AVAIL:NYC-LAX+FEE", result.get("quote"));
+    }
+
+    @Test
+    @DisplayName("Independent branches run concurrently; a join node waits for all of its inputs")
+    void branchesRunInParallel() {
+        ServiceGraph graph = new ServiceGraph()
+                .node("availability", service("Avail"), in -> "nyc-lax")
+                .node("pricing", service("Price"), in -> in.get("availability"), "availability")
+                .node("seats", service("Seats"), in -> in.get("availability"), "availability")
+                .node("quote", service("Quote"), in -> in.get("pricing") + "|" + in.get("seats"), "pricing", "seats");
+        CompletableFuture<Map<String, String>> result = processor.processAsyncGraph(graph);
+
+        answer("Avail", "flights");
+        assertTrue(pending.containsKey("Price") && pending.containsKey("Seats"), "both branches started");
+        answer("Price", "$300");
+        assertFalse(pending.containsKey("Quote"), "quote must wait for seats");
+        answer("Seats", "12A");
+        assertEquals("$300|12A", received.get("Quote"));
+        answer("Quote", "booked");
+
+        assertEquals("booked", result.join().get("quote"));
+    }
+
+    @Test
+    @DisplayName("FAIL_FAST: a node failure fails the graph and cancels running branches")
+    void failFastCancels() {
+        ServiceGraph graph = new ServiceGraph()
+                .node("pricing", service("Price"), in -> "nyc-lax")
+                .node("seats", service("Seats"), in -> "nyc-lax");
+        CompletableFuture<Map<String, String>> result = processor.processAsyncGraph(graph);
+
+        pending.get("Price").completeExceptionally(new RuntimeException("Price API down"));
+
+        CompletionException thrown = assertThrows(CompletionException.class, result::join);
+        assertEquals("Price API down", thrown.getCause().getMessage());
+        assertTrue(pending.get("Seats").isCancelled());
+    }
+
+    @Test
+    @DisplayName("FAIL_PARTIAL prunes the failed node's subtree; FAIL_SOFT feeds its fallback downstream")
+    void partialPrunesAndSoftFallsBack() {
+        AtomicInteger seatMapCalls = new AtomicInteger();
+        ServiceGraph graph = new ServiceGraph()
+                .node("availability", new Microservice("Avail"), in -> "nyc-lax")
+                .node("seats", failing("Seats"), in -> in.get("availability"), "availability")
+                .node("seatMap", counting("SeatMap", seatMapCalls), in -> in.get("seats"), "seats")
+                .node("meals", failing("Meals"), in -> in.get("availability"), "availability")
+                .node("quote", new Microservice("Quote"), in -> in.get("meals"), "meals")
+                .onFailure("seats", AggregationPolicy.FAIL_PARTIAL)
+                .onFailure("meals", AggregationPolicy.FAIL_SOFT, "no-meal");
+
+        Map<String, String> result = processor.processAsyncGraph(graph).join();
+
+        assertEquals(List.of("availability", "meals", "quote"), List.copyOf(result.keySet()));
+        assertEquals("Quote:NO-MEAL", result.get("quote"));
+        assertEquals(0, seatMapCalls.get(), "pruned nodes are never called");
+    }
+
+    @Test
+    @DisplayName("Graphs are validated as they are declared")
+    void validation() {
+        ServiceGraph graph = new ServiceGraph().node("a", new Microservice("A"), in -> "x");
+
+        assertThrows(IllegalArgumentException.class, () -> graph.node("a", new Microservice("A"), in -> "x"));
+        assertThrows(IllegalArgumentException.class, () -> graph.node("b", new Microservice("B"), in -> "x", "c"));
+        assertThrows(IllegalArgumentException.class, () -> graph.onFailure("a", AggregationPolicy.QUORUM));
+        assertThrows(IllegalArgumentException.class, () -> graph.onFailure("a", AggregationPolicy.FAIL_SOFT));
+    }
+
+    private Microservice service(String serviceId) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                received.put(serviceId, input);
+                return pending.computeIfAbsent(serviceId, id -> new CompletableFuture<>());
+            }
+        };
+    }
+
+    private void answer(String serviceId, String output) {
+        pending.get(serviceId).complete(output);
+    }
+
+    private static Microservice failing(String serviceId) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return CompletableFuture.failedFuture(new RuntimeException(serviceId + " API down"));
+            }
+        };
+    }
+
+    private static Microservice counting(String serviceId, AtomicInteger calls) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                calls.incrementAndGet();
+                return super.retrieveAsync(input);
+            }
+        };
+    }
+}
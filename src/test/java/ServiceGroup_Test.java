@@ -0,0 +1,148 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ServiceGroup - load-aware replica selection and outlier ejection")
+public class ServiceGroup_Test {
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<CompletableFuture<String>> pending = new ArrayList<>();
+
+    @Test
+    @DisplayName("LEAST_OUTSTANDING sends each call to the replica with the fewest in flight")
+    void leastOutstanding() {
+        AtomicInteger a = new AtomicInteger();
+        AtomicInteger b = new AtomicInteger();
+        AtomicInteger c = new AtomicInteger();
+        ServiceGroup group = new ServiceGroup("AirAlpha",
+                List.of(holding("a", a), holding("b", b), holding("c", c)),
+                ServiceGroup.Strategy.LEAST_OUTSTANDING, now::get);
+
+        group.retrieveAsync("x");
+        group.retrieveAsync("x");
+        group.retrieveAsync("x");
+        assertEquals(List.of(1, 1, 1), List.of(a.get(), b.get(), c.get()));
+
+        pending.get(1).complete("done"); // b is idle again
+        group.retrieveAsync("x");
+        assertEquals(2, b.get());
+    }
+
+    @Test
+    @DisplayName("POWER_OF_TWO_CHOICES avoids the loaded replica of a pair")
+    void powerOfTwoChoices() {
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger idle = new AtomicInteger();
+        ServiceGroup group = new ServiceGroup("AirAlpha",
+                List.of(holding("loaded", loaded), answering("idle", idle, 1)),
+                ServiceGroup.Strategy.POWER_OF_TWO_CHOICES, now::get);
+
+        for (int i = 0; i < 100; i++) {
+            group.retrieveAsync("x");
+        }
+
+        assertTrue(loaded.get() <= 1, "a replica with a call stuck in flight should get no more");
+        assertEquals(100 - loaded.get(), idle.get());
+    }
+
+    @Test
+    @DisplayName("A replica failing in a row is ejected, then readmitted after ejectionMs")
+    void consecutiveFailureEjection() {
+        AtomicInteger broken = new AtomicInteger();
+        AtomicInteger healthy = new AtomicInteger();
+        ServiceGroup group = new ServiceGroup("AirAlpha",
+                List.of(failing("broken", broken), answering("healthy", healthy, 0)),
+                ServiceGroup.Strategy.ROUND_ROBIN, now::get)
+                .withOutlierEjection(3, 0, 1_000);
+
+        for (int i = 0; i < 6; i++) {
+            group.retrieveAsync("x").exceptionally(ex -> null).join();
+        }
+        assertTrue(group.isEjected(0));
+        assertEquals(1, group.ejections());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("healthy:X", group.retrieveAsync("x").join());
+        }
+        assertEquals(3, broken.get());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_001));
+        assertFalse(group.isEjected(0));
+        group.retrieveAsync("x").exceptionally(ex -> null).join();
+        group.retrieveAsync("x").exceptionally(ex -> null).join();
+        assertEquals(4, broken.get());
+    }
+
+    @Test
+    @DisplayName("A replica much slower than the group median is ejected as a latency outlier")
+    void latencyOutlierEjection() {
+        ServiceGroup group = new ServiceGroup("AirAlpha",
+                List.of(answering("a", new AtomicInteger(), 2), answering("b", new AtomicInteger(), 2),
+                        answering("slow", new AtomicInteger(), 20)),
+                ServiceGroup.Strategy.ROUND_ROBIN, now::get);
+
+        for (int i = 0; i < 30; i++) {
+            group.retrieveAsync("x").join();
+        }
+
+        assertTrue(group.isEjected(2));
+        assertFalse(group.isEjected(0) || group.isEjected(1), "at most half the group is ejected");
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor treats a group as one service")
+    void processorUsesGroup() {
+        ServiceGroup group = new ServiceGroup("AirAlpha",
+                List.of(new Microservice("AirAlpha-1"), new Microservice("AirAlpha-2")),
+                ServiceGroup.Strategy.POWER_OF_TWO_CHOICES);
+        AsyncProcessor processor = new AsyncProcessor();
+
+        List<String> result = processor.processAsyncFailPartial(List.of(group, group), List.of("nyc-lax", "bos-sfo"))
+                .join();
+
+        assertEquals(2, result.size());
+        assertTrue(result.get(0).startsWith("AirAlpha-") && result.get(0).endsWith(":NYC-LAX"), result.get(0));
+    }
+
+    // Never answers on its own; the test completes calls through `pending`.
+    private Microservice holding(String serviceId, AtomicInteger calls) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                calls.incrementAndGet();
+                CompletableFuture<String> call = new CompletableFuture<>();
+                pending.add(call);
+                return call;
+            }
+        };
+    }
+
+    // Answers at once, having advanced the fake clock by latencyMs.
+    private Microservice answering(String serviceId, AtomicInteger calls, long latencyMs) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                calls.incrementAndGet();
+                now.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMs));
+                return CompletableFuture.completedFuture(serviceId + ":" + input.toUpperCase());
+            }
+        };
+    }
+
+    private static Microservice failing(String serviceId, AtomicInteger calls) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                calls.incrementAndGet();
+                return CompletableFuture.failedFuture(new RuntimeException(serviceId + " API down"));
+            }
+        };
+    }
+}
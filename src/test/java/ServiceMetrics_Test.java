@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ServiceMetrics - per-service, per-policy outcomes and latency")
+public class ServiceMetrics_Test {
+
+    @Test
+    @DisplayName("Histogram buckets stay within 12.5% and percentiles land in the right bucket")
+    void histogramAccuracy() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (long v = 1; v <= 1_000; v++) {
+            histogram.record(v * 1_000);
+        }
+
+        assertEquals(1_000, histogram.count());
+        long p50 = histogram.valueAtPercentile(0.5);
+        long p99 = histogram.valueAtPercentile(0.99);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.125, "p50 " + p50);
+        assertTrue(p99 >= 990_000 && p99 <= 990_000 * 1.125, "p99 " + p99);
+        for (int i = 0; i < LogLinearHistogram.BUCKETS - 1; i++) {
+            assertEquals(LogLinearHistogram.lowerBound(i + 1), LogLinearHistogram.upperBound(i) + 1);
+            assertEquals(i, LogLinearHistogram.indexOf(LogLinearHistogram.lowerBound(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("AsyncProcessor records success, failure and timeout per service and policy")
+    void processorRecordsOutcomes() {
+        ServiceMetrics metrics = new ServiceMetrics();
+        AsyncProcessor processor = new AsyncProcessor().withMetrics(metrics);
+        List<Microservice> services = List.of(
+                new Microservice("AirAlpha"),
+                fixedService("JetBravo", CompletableFuture.failedFuture(new RuntimeException("JetBravo API down"))),
+                fixedService("StuckAir", new CompletableFuture<>()));
+        List<String> messages = List.of("nyc-lax", "nyc-sfo", "nyc-sea");
+
+        processor.processAsyncFailSoft(services, messages, "QUOTE_UNAVAILABLE").join();
+
+        // outcomes are recorded alongside the policy's own handlers, so allow them a moment
+        ServiceMetrics.Series alpha = metrics.series("AirAlpha", AggregationPolicy.FAIL_SOFT);
+        ServiceMetrics.Series bravo = metrics.series("JetBravo", AggregationPolicy.FAIL_SOFT);
+        ServiceMetrics.Series stuck = metrics.series("StuckAir", AggregationPolicy.FAIL_SOFT);
+        awaitEquals(1, alpha::successes);
+        awaitEquals(1, bravo::failures);
+        awaitEquals(1, stuck::timeouts);
+        awaitEquals(0, stuck::inFlight);
+        assertEquals(1, alpha.latency().count());
+        assertEquals(0, metrics.series("AirAlpha", AggregationPolicy.FAIL_FAST).successes());
+    }
+
+    @Test
+    @DisplayName("Prometheus export lists counters, gauges and cumulative buckets, also to a file")
+    void prometheusExport(@TempDir Path dir) throws IOException {
+        ServiceMetrics metrics = new ServiceMetrics();
+        ServiceMetrics.Series series = metrics.onStart("AirAlpha", AggregationPolicy.FAIL_FAST);
+        metrics.onComplete(series, 3_000_000, null);
+        metrics.onStart("AirAlpha", AggregationPolicy.FAIL_FAST); // still in flight
+
+        String text = metrics.toPrometheus();
+        String labels = "service=\"AirAlpha\",policy=\"fail_fast\"";
+        assertTrue(text.contains("# TYPE service_calls_total counter"));
+        assertTrue(text.contains("service_calls_total{" + labels + ",outcome=\"success\"} 1\n"));
+        assertTrue(text.contains("service_calls_in_flight{" + labels + "} 1\n"));
+        assertTrue(text.contains("service_call_latency_seconds_bucket{" + labels + ",le=\"0.002621439\"} 0\n"));
+        assertTrue(text.contains("service_call_latency_seconds_bucket{" + labels + ",le=\"0.005242879\"} 1\n"));
+        assertTrue(text.contains("service_call_latency_seconds_count{" + labels + "} 1\n"));
+
+        Path file = dir.resolve("metrics.prom");
+        metrics.writePrometheus(file);
+        assertEquals(text, Files.readString(file));
+    }
+
+    @Test
+    @DisplayName("Exported buckets are exact: a value just under a bound is counted in it")
+    void exportedBucketsAreExact() {
+        ServiceMetrics metrics = new ServiceMetrics();
+        // 2.4 ms shares a native bucket with 2.5 ms; a 2.5 ms export bound would have left it out
+        metrics.onComplete(metrics.onStart("AirAlpha", AggregationPolicy.FAIL_FAST), 2_400_000, null);
+
+        String text = metrics.toPrometheus();
+        String labels = "service=\"AirAlpha\",policy=\"fail_fast\"";
+        assertTrue(text.contains("service_call_latency_seconds_bucket{" + labels + ",le=\"0.001048575\"} 0\n"));
+        assertTrue(text.contains("service_call_latency_seconds_bucket{" + labels + ",le=\"0.002621439\"} 1\n"));
+    }
+
+    private void awaitEquals(long expected, LongSupplier actual) {
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (actual.getAsLong() != expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(expected, actual.getAsLong());
+    }
+
+    private Microservice fixedService(String serviceId, CompletableFuture<String> response) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return response;
+            }
+        };
+    }
+}
@@ -0,0 +1,177 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SimulatedMicroservice - latency distributions, failures, hangs, brownouts")
+public class SimulatedMicroservice_Test {
+
+    @Test
+    @DisplayName("Distributions: same seed, same draws; shapes match their parameters")
+    void distributionShapes() {
+        long[] logNormal = sample(LatencyDistribution.logNormal(10, 0.5), 7, 20_000);
+        assertArrayEquals(logNormal, sample(LatencyDistribution.logNormal(10, 0.5), 7, 20_000));
+        assertEquals(10_000, logNormal[logNormal.length / 2], 500, "median should be ~10ms");
+
+        long[] pareto = sample(LatencyDistribution.pareto(5, 1.5), 7, 20_000);
+        assertTrue(pareto[0] >= 5_000, "pareto never goes below its minimum");
+        assertTrue(pareto[pareto.length * 99 / 100] > 10 * pareto[pareto.length / 2], "heavy tail");
+
+        long[] bimodal = sample(LatencyDistribution.bimodal(
+                LatencyDistribution.fixed(1), LatencyDistribution.fixed(100), 0.1), 7, 20_000);
+        long slow = Arrays.stream(bimodal).filter(micros -> micros == 100_000).count();
+        assertEquals(2_000, slow, 200);
+    }
+
+    @Test
+    @DisplayName("Same seed, same sequence of outcomes")
+    void sameSeedSameOutcomes() {
+        SimulatedMicroservice first = new SimulatedMicroservice("AirAlpha", 7, LatencyDistribution.fixed(0))
+                .withFailureProbability(0.3);
+        SimulatedMicroservice second = new SimulatedMicroservice("AirAlpha", 7, LatencyDistribution.fixed(0))
+                .withFailureProbability(0.3);
+
+        for (int i = 0; i < 1_000; i++) {
+            CompletableFuture<String> a = first.retrieveAsync("nyc-lax");
+            CompletableFuture<String> b = second.retrieveAsync("nyc-lax");
+            assertTrue(a.isDone(), "zero latency completes inline");
+            assertEquals(a.isCompletedExceptionally(), b.isCompletedExceptionally());
+        }
+    }
+
+    @Test
+    @DisplayName("Services with adjacent seeds are not shifted copies of each other")
+    void adjacentSeedsAreIndependent() {
+        long[] first = draws(1, 50);
+        long[] second = draws(2, 50);
+
+        for (int shift = -2; shift <= 2; shift++) {
+            int same = 0;
+            for (int i = 2; i < 48; i++) {
+                same += first[i + shift] == second[i] ? 1 : 0;
+            }
+            assertTrue(same < 5, "shift " + shift + ": " + same + "/46 latencies match");
+        }
+    }
+
+    @Test
+    @DisplayName("Recorded traces replay in order and wrap around")
+    void traceReplay() throws Exception {
+        Path file = Files.createTempFile("latency", ".trace");
+        try {
+            Files.write(file, List.of("# ms per call", "1.5", "", "20", "3"));
+            LatencyDistribution trace = LatencyDistribution.trace(file);
+            assertArrayEquals(new long[] { 1_500, 20_000, 3_000, 1_500 },
+                    new long[] { trace.sampleMicros(0, null), trace.sampleMicros(1, null),
+                            trace.sampleMicros(2, null), trace.sampleMicros(3, null) });
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Failures and hangs occur at the configured rates; a hang ends only at the caller's timeout")
+    void failuresAndHangs() {
+        SimulatedMicroservice service = new SimulatedMicroservice("AirAlpha", 42, LatencyDistribution.fixed(0))
+                .withFailureProbability(0.2)
+                .withHangProbability(0.1);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            calls.add(service.retrieveAsync("nyc-lax"));
+        }
+        long pending = calls.stream().filter(call -> !call.isDone()).count();
+        long failed = calls.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+        assertEquals(1_000, pending, 150);
+        assertEquals(pending, service.hangs());
+        assertEquals(1_800, failed, 200); // 20% of the calls that did not hang
+        assertEquals(failed, service.failures());
+
+        CompletableFuture<String> hung = calls.stream().filter(call -> !call.isDone()).findFirst().get();
+        assertThrows(CompletionException.class, () -> hung.orTimeout(20, TimeUnit.MILLISECONDS).join());
+    }
+
+    @Test
+    @DisplayName("Brownout windows stretch latency and add failures only while active")
+    void brownouts() {
+        AtomicLong now = new AtomicLong();
+        BrownoutSchedule schedule = new BrownoutSchedule().add(100, 50, 10, 1.0).repeatEvery(1_000);
+        SimulatedMicroservice service = new SimulatedMicroservice("AirAlpha", 1, LatencyDistribution.fixed(0),
+                ServiceExecutors.scheduler(), now::get).withBrownouts(schedule);
+
+        assertEquals("AirAlpha:NYC-LAX", service.retrieveAsync("nyc-lax").join());
+        now.set(TimeUnit.MILLISECONDS.toNanos(1_120));
+        assertThrows(CompletionException.class, () -> service.retrieveAsync("nyc-lax").join());
+        now.set(TimeUnit.MILLISECONDS.toNanos(1_150));
+        assertEquals("AirAlpha:NYC-LAX", service.retrieveAsync("nyc-lax").join());
+
+        BrownoutSchedule slowdown = new BrownoutSchedule().add(0, 60_000, 10, 0);
+        assertEquals(10, slowdown.latencyMultiplierAt(5_000));
+        assertEquals(1, slowdown.latencyMultiplierAt(60_000));
+    }
+
+    @Test
+    @DisplayName("100k concurrent calls complete on timers, without a thread per call")
+    void manyConcurrentCallsWithoutThreads() {
+        SimulatedMicroservice service = new SimulatedMicroservice("AirAlpha", 3, LatencyDistribution.uniform(50, 100));
+        int threadsBefore = Thread.activeCount();
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            calls.add(service.retrieveAsync("nyc-lax"));
+        }
+        assertTrue(calls.stream().filter(CompletableFuture::isDone).count() < 100_000, "calls should overlap");
+        // the timer thread plus, at most, the common pool that completes the answers
+        assertTrue(Thread.activeCount() - threadsBefore <= 2 + ForkJoinPool.getCommonPoolParallelism());
+
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).orTimeout(10, TimeUnit.SECONDS).join();
+        assertEquals(100_000, service.calls());
+    }
+
+    @Test
+    @DisplayName("Answers complete off the shared timer thread, so dependent stages cannot stall it")
+    void answersCompleteOffTheTimerThread() {
+        SimulatedMicroservice service = new SimulatedMicroservice("AirAlpha", 5, LatencyDistribution.fixed(5));
+
+        String thread = service.retrieveAsync("nyc-lax")
+                .thenApply(r -> Thread.currentThread().getName())
+                .orTimeout(1, TimeUnit.SECONDS)
+                .join();
+
+        assertFalse(thread.startsWith("service-timer"), "completed on " + thread);
+    }
+
+    // The uniform(0, 100 ms) latency drawn for each of the first n calls; answers are immediate.
+    private static long[] draws(long seed, int n) {
+        long[] draws = new long[n];
+        LatencyDistribution uniform = LatencyDistribution.uniform(0, 100);
+        SimulatedMicroservice service = new SimulatedMicroservice("svc-" + seed, seed, (i, random) -> {
+            draws[(int) i] = uniform.sampleMicros(i, random);
+            return 0;
+        });
+        for (int i = 0; i < n; i++) {
+            service.retrieveAsync("nyc-lax").join();
+        }
+        return draws;
+    }
+
+    private static long[] sample(LatencyDistribution distribution, long seed, int n) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] samples = new long[n];
+        for (int i = 0; i < n; i++) {
+            samples[i] = distribution.sampleMicros(i, random);
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+}
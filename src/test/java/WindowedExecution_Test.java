@@ -0,0 +1,158 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Windowed execution - bounded in-flight calls streamed to a sink")
+public class WindowedExecution_Test {
+
+    private final AsyncProcessor processor = new AsyncProcessor()
+            .withFailureSink(new FailureSink(16, 0, new StringBuffer()));
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger started = new AtomicInteger();
+
+    @Test
+    @DisplayName("FailFast: 2000 calls, never more than W in flight, results in input order")
+    void failFastKeepsOrderAndWindow() {
+        int n = 2_000;
+        List<Microservice> services = IntStream.range(0, n).mapToObj(i -> trackedService("svc-" + i, 200))
+                .collect(Collectors.toList());
+        List<String> messages = IntStream.range(0, n).mapToObj(i -> "m" + i).collect(Collectors.toList());
+        StringWriter out = new StringWriter();
+
+        long delivered = processor.processAsyncFailFastWindowed(services, messages, 16, new WriterSink(out, " "))
+                .join();
+
+        String expected = IntStream.range(0, n).mapToObj(i -> "svc-" + i + ":M" + i)
+                .collect(Collectors.joining(" "));
+        assertEquals(expected, out.toString());
+        assertEquals(n, delivered);
+        assertTrue(maxInFlight.get() <= 16, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    @DisplayName("Ordered mode: a slow first call holds back at most W results, not N")
+    void slowHeadBoundsBuffering() {
+        CompletableFuture<String> head = new CompletableFuture<>();
+        List<Microservice> services = new ArrayList<>();
+        services.add(fixedService("SlowAir", head));
+        for (int i = 1; i < 100; i++) {
+            services.add(trackedService("svc-" + i, 0));
+        }
+        List<String> received = new ArrayList<>();
+        // drain inline, so the window has filled by the time the call returns
+        AsyncProcessor inline = new AsyncProcessor(Runnable::run)
+                .withFailureSink(new FailureSink(16, 0, new StringBuffer()));
+
+        CompletableFuture<Long> run = inline.processAsyncFailSoftWindowed(services,
+                IntStream.range(0, 100).mapToObj(i -> "m" + i).collect(Collectors.toList()), "X", 4, received::add);
+
+        assertFalse(run.isDone());
+        assertEquals(3, started.get()); // head plus three finished results fill the window
+        head.complete("SlowAir:M0");
+        assertEquals(100L, run.join());
+        assertEquals("SlowAir:M0", received.get(0));
+        assertEquals("svc-99:M99", received.get(99));
+    }
+
+    @Test
+    @DisplayName("FailFast: a failure stops new calls and cancels the outstanding ones")
+    void failFastStopsOnFailure() {
+        CompletableFuture<String> hanging = new CompletableFuture<>();
+        List<Microservice> services = new ArrayList<>();
+        services.add(fixedService("StuckAir", hanging));
+        services.add(fixedService("AirAlpha", CompletableFuture.failedFuture(new RuntimeException("AirAlpha API down"))));
+        for (int i = 2; i < 1_000; i++) {
+            services.add(trackedService("svc-" + i, 0));
+        }
+        List<String> messages = IntStream.range(0, 1_000).mapToObj(i -> "m" + i).collect(Collectors.toList());
+
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> processor.processAsyncFailFastWindowed(services, messages, 8, s -> { }).join());
+
+        assertEquals("AirAlpha API down", ex.getCause().getMessage());
+        assertTrue(hanging.isCancelled());
+        assertTrue(started.get() < 8, "started " + started.get());
+    }
+
+    @Test
+    @DisplayName("FailPartial and CompletionOrder windowed deliver every surviving result")
+    void partialAndCompletionOrder() {
+        List<Microservice> services = List.of(
+                trackedService("AirAlpha", 100),
+                fixedService("JetBravo", CompletableFuture.failedFuture(new RuntimeException("JetBravo API down"))),
+                trackedService("SkyCharlie", 0));
+        ConcurrentLinkedQueue<String> partial = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> completion = new ConcurrentLinkedQueue<>();
+
+        assertEquals(2L, processor.processAsyncFailPartialWindowed(services, List.of("a", "b", "c"), 2,
+                partial::add).join());
+        List<Microservice> healthy = List.of(trackedService("AirAlpha", 20_000), trackedService("SkyCharlie", 0));
+        assertEquals(2L, processor.processAsyncCompletionOrderWindowed(healthy, "x", 2, completion::add).join());
+
+        assertEquals(List.of("AirAlpha:A", "SkyCharlie:C"), new ArrayList<>(partial));
+        assertEquals(List.of("SkyCharlie:X", "AirAlpha:X"), new ArrayList<>(completion));
+    }
+
+    // Completes after latencyMicros on the timer (inline when 0) and tracks concurrency.
+    @Test
+    @DisplayName("A Deadline bounds the whole windowed run, not each call")
+    void deadlineBoundsRun() {
+        List<Microservice> services = IntStream.range(0, 20)
+                .mapToObj(i -> fixedService("StuckAir-" + i, new CompletableFuture<>()))
+                .collect(Collectors.toList());
+        List<String> received = new CopyOnWriteArrayList<>();
+
+        long start = System.nanoTime();
+        long delivered = processor.processAsyncFailSoftWindowed(services,
+                IntStream.range(0, 20).mapToObj(i -> "m" + i).collect(Collectors.toList()), "X", 4,
+                received::add, Deadline.after(100)).join();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // without the deadline, five rounds of 500 ms per-call timeouts
+        assertTrue(elapsedMs < 1_000, "took " + elapsedMs + " ms");
+        assertEquals(20L, delivered);
+        assertEquals(Collections.nCopies(20, "X"), received);
+    }
+
+    private Microservice trackedService(String serviceId, long latencyMicros) {
+        SimulatedMicroservice delegate = new SimulatedMicroservice(serviceId, 0,
+                LatencyDistribution.fixed(latencyMicros / 1_000.0));
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                started.incrementAndGet();
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                CompletableFuture<String> result = new CompletableFuture<>();
+                delegate.retrieveAsync(input).whenComplete((r, ex) -> {
+                    inFlight.decrementAndGet(); // before the caller can see the result
+                    result.complete(r);
+                });
+                return result;
+            }
+        };
+    }
+
+    private Microservice fixedService(String serviceId, CompletableFuture<String> response) {
+        return new Microservice(serviceId) {
+            @Override
+            public CompletableFuture<String> retrieveAsync(String input) {
+                return response;
+            }
+        };
+    }
+}